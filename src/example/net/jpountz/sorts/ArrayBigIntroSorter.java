@@ -0,0 +1,50 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+public class ArrayBigIntroSorter<T extends java.lang.Comparable<? super T>> extends BigIntroSorter {
+
+  private final T[] arr;
+  private final long offset;
+  private T pivot;
+
+  /** Sorter whose slot <code>offset + i</code> is <code>arr[i]</code>. */
+  public ArrayBigIntroSorter(T[] arr, long offset) {
+    this.arr = arr;
+    this.offset = offset;
+  }
+
+  @Override
+  protected int compare(long i, long j) {
+    return arr[(int) (i - offset)].compareTo(arr[(int) (j - offset)]);
+  }
+
+  @Override
+  protected void swap(long i, long j) {
+    Sorter.swap(arr, (int) (i - offset), (int) (j - offset));
+  }
+
+  @Override
+  protected void setPivot(long i) {
+    pivot = arr[(int) (i - offset)];
+  }
+
+  @Override
+  protected int comparePivot(long j) {
+    return pivot.compareTo(arr[(int) (j - offset)]);
+  }
+
+}
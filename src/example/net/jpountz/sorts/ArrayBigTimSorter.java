@@ -0,0 +1,64 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+public class ArrayBigTimSorter<T extends java.lang.Comparable<? super T>> extends BigTimSorter {
+
+  private final T[] arr;
+  private final long offset;
+  private final T[] tmp;
+
+  /** Sorter whose slot <code>offset + i</code> is <code>arr[i]</code>. */
+  public ArrayBigTimSorter(T[] arr, long offset, int maxTempSlots) {
+    super(maxTempSlots);
+    this.arr = arr;
+    this.offset = offset;
+    @SuppressWarnings("unchecked")
+    final T[] tmp = (T[]) new Comparable[maxTempSlots];
+    this.tmp = tmp;
+  }
+
+  @Override
+  protected int compare(long i, long j) {
+    return arr[(int) (i - offset)].compareTo(arr[(int) (j - offset)]);
+  }
+
+  @Override
+  protected void swap(long i, long j) {
+    Sorter.swap(arr, (int) (i - offset), (int) (j - offset));
+  }
+
+  @Override
+  protected void copy(long src, long dest) {
+    arr[(int) (dest - offset)] = arr[(int) (src - offset)];
+  }
+
+  @Override
+  protected void saveAll(long start, int len) {
+    System.arraycopy(arr, (int) (start - offset), tmp, 0, len);
+  }
+
+  @Override
+  protected void restore(int src, long dest) {
+    arr[(int) (dest - offset)] = tmp[src];
+  }
+
+  @Override
+  protected int compareSaved(int i, long j) {
+    return tmp[i].compareTo(arr[(int) (j - offset)]);
+  }
+
+}
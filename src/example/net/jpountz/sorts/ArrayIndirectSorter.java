@@ -0,0 +1,32 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+public class ArrayIndirectSorter<T extends java.lang.Comparable<? super T>> extends IndirectSorter {
+
+  private final T[] arr;
+
+  public ArrayIndirectSorter(T[] arr, boolean stable) {
+    super(stable);
+    this.arr = arr;
+  }
+
+  @Override
+  protected int compare(int a, int b) {
+    return arr[a].compareTo(arr[b]);
+  }
+
+}
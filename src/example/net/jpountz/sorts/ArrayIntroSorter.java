@@ -23,6 +23,11 @@ public class ArrayIntroSorter<T extends java.lang.Comparable<? super T>> extends
     this.arr = arr;
   }
 
+  public ArrayIntroSorter(T[] arr, int heapArity) {
+    super(heapArity);
+    this.arr = arr;
+  }
+
   @Override
   protected int compare(int i, int j) {
     return arr[i].compareTo(arr[j]);
@@ -47,6 +47,16 @@ public class ArrayMergeSorter<T extends java.lang.Comparable<? super T>> extends
     return tmp[i].compareTo(tmp[j]);
   }
 
+  @Override
+  protected boolean canCompareSavedToSlot() {
+    return true;
+  }
+
+  @Override
+  protected int compareSavedToSlot(int i, int j) {
+    return tmp[i].compareTo(arr[j]);
+  }
+
   @Override
   protected void copy(int src, int dest) {
     arr[dest] = arr[src];
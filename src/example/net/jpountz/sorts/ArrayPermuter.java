@@ -0,0 +1,49 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+public class ArrayPermuter extends Permuter {
+
+  private final Object[][] columns;
+  private final Object[] tmp;
+
+  public ArrayPermuter(Object[]... columns) {
+    this.columns = columns;
+    this.tmp = new Object[columns.length];
+  }
+
+  @Override
+  protected void save(int i) {
+    for (int c = 0; c < columns.length; ++c) {
+      tmp[c] = columns[c][i];
+    }
+  }
+
+  @Override
+  protected void copy(int src, int dest) {
+    for (Object[] column : columns) {
+      column[dest] = column[src];
+    }
+  }
+
+  @Override
+  protected void restore(int i) {
+    for (int c = 0; c < columns.length; ++c) {
+      columns[c][i] = tmp[c];
+    }
+  }
+
+}
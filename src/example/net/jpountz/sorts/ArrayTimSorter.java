@@ -48,6 +48,11 @@ public class ArrayTimSorter<T extends java.lang.Comparable<? super T>> extends T
     System.arraycopy(arr, start, tmp, 0, len);
   }
 
+  @Override
+  protected void save(int i, int j) {
+    tmp[j] = arr[i];
+  }
+
   @Override
   protected void restore(int src, int dest) {
     arr[dest] = tmp[src];
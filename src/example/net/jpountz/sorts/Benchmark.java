@@ -15,95 +15,22 @@ package net.jpountz.sorts;
  */
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Random;
 
 public class Benchmark {
 
-  static final Random R = new Random();
-  static Integer[] CACHE = new Integer[1 << 24];
-  static {
-    for (int i = 0; i < CACHE.length; ++i) {
-      CACHE[i] = i;
+  static void prepare(Distribution distribution, Integer[] arr, Random random) {
+    final int[] values = new int[arr.length];
+    distribution.fill(values, random);
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = values[i];
     }
   }
 
-  private static enum Order {
-    RANDOM {
-      @Override
-      void prepare(Integer[] arr) {
-        for (int i = 0; i < arr.length; ++i) {
-          arr[i] = CACHE[R.nextInt(CACHE.length)];
-        }
-      }
-    },
-    RANDOM_LOW_CARDINALITY {
-      @Override
-      void prepare(Integer[] arr) {
-        for (int i = 0; i < arr.length; ++i) {
-          arr[i] = CACHE[R.nextInt(100)];
-        }
-      }
-    },
-    ASCENDING {
-      @Override
-      void prepare(Integer[] arr) {
-        RANDOM.prepare(arr);
-        Arrays.sort(arr);
-      }
-    },
-    ASCENDING_SEQUENCES {
-      @Override
-      void prepare(Integer[] arr) {
-        arr[0] = CACHE[R.nextInt(100)];
-        for (int i = 1; i < arr.length; ++i) {
-          if (R.nextInt(200) == 0) {
-            arr[i] = CACHE[R.nextInt(100)];
-          } else {
-            final int slot = arr[i-1] + R.nextInt(100);
-            arr[i] = CACHE[slot & (CACHE.length - 1)];
-          }
-        }
-      }
-    },
-    MOSTLY_ASCENDING {
-      @Override
-      void prepare(Integer[] arr) {
-        arr[0] = CACHE[R.nextInt(CACHE.length)];
-        for (int i = 1; i < arr.length; ++i) {
-          final int slot = arr[i-1] - 4 + R.nextInt(10);
-          arr[i] = CACHE[slot & (CACHE.length - 1)];
-        }
-      }
-    },
-    DESCENDING {
-      @Override
-      void prepare(Integer[] arr) {
-        ASCENDING.prepare(arr);
-        Collections.reverse(Arrays.asList(arr));
-      }
-    },
-    STRICTLY_DESCENDING {
-      @Override
-      void prepare(Integer[] arr) {
-        arr[0] = CACHE[CACHE.length - 1 - R.nextInt(10)];
-        for (int i = 1; i < arr.length; ++i) {
-          arr[i] = arr[i - 1] - 1 - R.nextInt(5);
-        }
-      }
-    };
-    abstract void prepare(Integer[] arr);
-  }
-
-  public static void main(String[] args) {
-    final Integer[] array = new Integer[2000000];
-    final Random random = new Random();
-    for (int i = 0; i < array.length; ++i) {
-      array[i] = random.nextInt(100);
-    }
-
+  /** Return the sorters to benchmark, by name. */
+  static <T extends Comparable<? super T>> Map<String, Sorter> sorters(final T[] array) {
     final Map<String, Sorter> sorters = new LinkedHashMap<String, Sorter>();
     sorters.put("Arrays.sort", new Sorter() {
       @Override
@@ -119,32 +46,40 @@ public class Benchmark {
         }
       }
     });
-    sorters.put("IntroSorter", new ArrayIntroSorter<Integer>(array));
-    sorters.put("HeapSorter", new ArrayHeapSorter<Integer>(array));
-    sorters.put("TernaryHeapSorter", new ArrayTernaryHeapSorter<Integer>(array));
-    sorters.put("MergeSorter", new ArrayMergeSorter<Integer>(array, array.length));
-    sorters.put("InPlaceMergeSorter", new ArrayInPlaceMergeSorter<Integer>(array));
-    sorters.put("TimSorter", new ArrayTimSorter<Integer>(array, array.length/2));
+    sorters.put("IntroSorter", new ArrayIntroSorter<T>(array));
+    sorters.put("HeapSorter", new ArrayHeapSorter<T>(array));
+    sorters.put("TernaryHeapSorter", new ArrayTernaryHeapSorter<T>(array));
+    sorters.put("MergeSorter", new ArrayMergeSorter<T>(array, array.length));
+    sorters.put("InPlaceMergeSorter", new ArrayInPlaceMergeSorter<T>(array));
+    sorters.put("BlockMergeSorter", new ArrayBlockMergeSorter<T>(array));
+    sorters.put("TimSorter", new ArrayTimSorter<T>(array, array.length/2));
+    return sorters;
+  }
+
+  public static void main(String[] args) {
+    final Integer[] array = new Integer[2000000];
+    final Random random = new Random(Long.getLong("seed", 0L));
+    final Map<String, Sorter> sorters = sorters(array);
 
     long start = System.nanoTime();
     // JVM warming
     while (System.nanoTime() - start < 10L * 1000 * 1000 * 1000) {
       for (Sorter sorter : sorters.values()) {
-        Order.RANDOM.prepare(array);
+        prepare(Distribution.RANDOM, array, random);
         sorter.sort(0, array.length);
       }
     }
-    for (Order order : Order.values()) {
+    for (Distribution distribution : Distribution.values()) {
       System.out.print('\t');
-      System.out.print(order);
+      System.out.print(distribution);
     }
     System.out.println();
     for (int i = 0; i < 10; ++i) {
       for (Map.Entry<String, Sorter> entry : sorters.entrySet()) {
         final Sorter sorter = entry.getValue();
         System.out.print(entry.getKey());
-        for (Order order : Order.values()) {
-          order.prepare(array);
+        for (Distribution distribution : Distribution.values()) {
+          prepare(distribution, array, random);
           start = System.nanoTime();
           sorter.sort(0, array.length);
           final long time = (System.nanoTime() - start) / 1000 / 1000;
@@ -0,0 +1,38 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+public class BytesArrayMSDRadixSorter extends MSDRadixSorter {
+
+  private final byte[][] arr;
+
+  public BytesArrayMSDRadixSorter(byte[][] arr, int maxLength) {
+    super(maxLength);
+    this.arr = arr;
+  }
+
+  @Override
+  protected int byteAt(int i, int k) {
+    final byte[] bytes = arr[i];
+    return k < bytes.length ? bytes[k] & 0xFF : -1;
+  }
+
+  @Override
+  protected void swap(int i, int j) {
+    swap(arr, i, j);
+  }
+
+}
@@ -0,0 +1,245 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Reproducible input distributions to test and benchmark sorters: the same
+ * seed always generates the same values.
+ */
+public enum Distribution {
+  RANDOM {
+    @Override
+    public void fill(int[] arr, Random random) {
+      for (int i = 0; i < arr.length; ++i) {
+        arr[i] = random.nextInt();
+      }
+    }
+  },
+  RANDOM_LOW_CARDINALITY {
+    @Override
+    public void fill(int[] arr, Random random) {
+      for (int i = 0; i < arr.length; ++i) {
+        arr[i] = random.nextInt(100);
+      }
+    }
+  },
+  /** A few distinct values that are far apart. */
+  FEW_UNIQUE {
+    @Override
+    public void fill(int[] arr, Random random) {
+      final int[] values = new int[4];
+      for (int i = 0; i < values.length; ++i) {
+        values[i] = random.nextInt();
+      }
+      for (int i = 0; i < arr.length; ++i) {
+        arr[i] = values[random.nextInt(values.length)];
+      }
+    }
+  },
+  /** Values from 0 to 9999 with a Zipf distribution of exponent 1: value
+   *  <code>k</code> is about <code>k+1</code> times less frequent than
+   *  value <code>0</code>. */
+  ZIPF {
+    @Override
+    public void fill(int[] arr, Random random) {
+      final double[] cumulative = new double[10000];
+      double sum = 0;
+      for (int k = 0; k < cumulative.length; ++k) {
+        sum += 1d / (k + 1);
+        cumulative[k] = sum;
+      }
+      for (int i = 0; i < arr.length; ++i) {
+        final int k = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+        arr[i] = k >= 0 ? k : -1 - k;
+      }
+    }
+  },
+  ASCENDING {
+    @Override
+    public void fill(int[] arr, Random random) {
+      RANDOM.fill(arr, random);
+      Arrays.sort(arr);
+    }
+  },
+  ASCENDING_SEQUENCES {
+    @Override
+    public void fill(int[] arr, Random random) {
+      for (int i = 0; i < arr.length; ++i) {
+        if (i == 0 || random.nextInt(200) == 0) {
+          arr[i] = random.nextInt(100);
+        } else {
+          arr[i] = arr[i - 1] + random.nextInt(100);
+        }
+      }
+    }
+  },
+  MOSTLY_ASCENDING {
+    @Override
+    public void fill(int[] arr, Random random) {
+      for (int i = 0; i < arr.length; ++i) {
+        arr[i] = i == 0 ? random.nextInt(1 << 24) : arr[i - 1] - 4 + random.nextInt(10);
+      }
+    }
+  },
+  /** Every value is at most 10 slots away from its sorted position, and 1%
+   *  of values are random. */
+  K_SORTED {
+    @Override
+    public void fill(int[] arr, Random random) {
+      for (int i = 0; i < arr.length; ++i) {
+        arr[i] = i;
+      }
+      final int k = 10;
+      for (int i = 0; i + k < arr.length; i += k) {
+        for (int j = i + k - 1; j > i; --j) {
+          final int other = i + random.nextInt(j - i + 1);
+          final int tmp = arr[j];
+          arr[j] = arr[other];
+          arr[other] = tmp;
+        }
+      }
+      for (int i = 0; i < arr.length / 100; ++i) {
+        arr[random.nextInt(arr.length)] = random.nextInt(arr.length);
+      }
+    }
+  },
+  DESCENDING {
+    @Override
+    public void fill(int[] arr, Random random) {
+      ASCENDING.fill(arr, random);
+      for (int i = 0, j = arr.length - 1; i < j; ++i, --j) {
+        final int tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+      }
+    }
+  },
+  STRICTLY_DESCENDING {
+    @Override
+    public void fill(int[] arr, Random random) {
+      for (int i = 0; i < arr.length; ++i) {
+        arr[i] = i == 0 ? Integer.MAX_VALUE - random.nextInt(10) : arr[i - 1] - 1 - random.nextInt(5);
+      }
+    }
+  },
+  /** Ascending sequences of 1000 values that restart from 0. */
+  SAWTOOTH {
+    @Override
+    public void fill(int[] arr, Random random) {
+      final int offset = random.nextInt(1000);
+      for (int i = 0; i < arr.length; ++i) {
+        arr[i] = (i + offset) % 1000;
+      }
+    }
+  },
+  /** Ascending then descending values. */
+  ORGAN_PIPE {
+    @Override
+    public void fill(int[] arr, Random random) {
+      for (int i = 0; i < arr.length; ++i) {
+        arr[i] = Math.min(i, arr.length - 1 - i);
+      }
+    }
+  },
+  /** The input that makes {@link IntroSorter} perform the most comparisons,
+   *  see {@link #quicksortKiller(int, SorterFactory)}. */
+  QUICKSORT_KILLER {
+    @Override
+    public void fill(int[] arr, Random random) {
+      final int[] killer = quicksortKiller(arr.length, new SorterFactory() {
+        @Override
+        public <T extends Comparable<? super T>> Sorter newSorter(T[] arr) {
+          return new ArrayIntroSorter<T>(arr);
+        }
+      });
+      System.arraycopy(killer, 0, arr, 0, arr.length);
+    }
+  };
+
+  /** Fill <code>arr</code> with values drawn from <code>random</code>. */
+  public abstract void fill(int[] arr, Random random);
+
+  /** Return <code>length</code> values generated with the given seed. */
+  public int[] generate(int length, long seed) {
+    final int[] arr = new int[length];
+    fill(arr, new Random(seed));
+    return arr;
+  }
+
+  /** Creates sorters over arrays. */
+  public interface SorterFactory {
+    <T extends Comparable<? super T>> Sorter newSorter(T[] arr);
+  }
+
+  /** Return an input of length <code>length</code> on which the sorters
+   *  that <code>factory</code> creates perform many comparisons, generated
+   *  with M. D. McIlroy's adversary for quicksort. Values are decided
+   *  lazily during a sort: they are all equal to a high "gas" value until
+   *  they are compared to another gas value, and the value that is likely
+   *  the pivot is then frozen to the lowest value that is still
+   *  available. Deterministic sorters then perform the same comparisons on
+   *  the returned input. */
+  public static int[] quicksortKiller(int length, SorterFactory factory) {
+    final Adversary adversary = new Adversary(length);
+    final Adversary.Item[] items = new Adversary.Item[length];
+    for (int i = 0; i < length; ++i) {
+      items[i] = adversary.new Item(i);
+    }
+    factory.newSorter(items).sort(0, length);
+    return adversary.values;
+  }
+
+  private static final class Adversary {
+
+    final int[] values;
+    final int gas;
+    int solid;
+    int candidate;
+
+    Adversary(int length) {
+      values = new int[length];
+      gas = length;
+      Arrays.fill(values, gas);
+    }
+
+    final class Item implements Comparable<Item> {
+
+      final int id;
+
+      Item(int id) {
+        this.id = id;
+      }
+
+      @Override
+      public int compareTo(Item other) {
+        final int x = id, y = other.id;
+        if (values[x] == gas && values[y] == gas) {
+          values[x == candidate ? x : y] = solid++;
+        }
+        if (values[x] == gas) {
+          candidate = x;
+        } else if (values[y] == gas) {
+          candidate = y;
+        }
+        return values[x] < values[y] ? -1 : values[x] == values[y] ? 0 : 1;
+      }
+
+    }
+
+  }
+
+}
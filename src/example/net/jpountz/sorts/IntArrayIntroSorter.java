@@ -0,0 +1,56 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+public class IntArrayIntroSorter extends IntroSorter {
+
+  private final int[] arr;
+  private int pivot;
+
+  public IntArrayIntroSorter(int[] arr) {
+    this.arr = arr;
+  }
+
+  @Override
+  protected int compare(int i, int j) {
+    return arr[i] < arr[j] ? -1 : arr[i] == arr[j] ? 0 : 1;
+  }
+
+  @Override
+  protected void swap(int i, int j) {
+    swap(arr, i, j);
+  }
+
+  @Override
+  protected void setPivot(int i) {
+    pivot = arr[i];
+  }
+
+  @Override
+  protected int comparePivot(int j) {
+    return pivot < arr[j] ? -1 : pivot == arr[j] ? 0 : 1;
+  }
+
+  @Override
+  protected void sortSmall(int from, int to) {
+    insertionSort(arr, from, to);
+  }
+
+  @Override
+  protected int partition(int from, int to) {
+    return partition(arr, from, to);
+  }
+
+}
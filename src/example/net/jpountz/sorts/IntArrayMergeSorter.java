@@ -0,0 +1,78 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+public class IntArrayMergeSorter extends MergeSorter {
+
+  private final int[] arr;
+  private final int[] tmp;
+
+  public IntArrayMergeSorter(int[] arr, int maxTempSlots) {
+    super(maxTempSlots);
+    this.arr = arr;
+    this.tmp = new int[maxTempSlots];
+  }
+
+  @Override
+  protected int compare(int i, int j) {
+    return arr[i] < arr[j] ? -1 : arr[i] == arr[j] ? 0 : 1;
+  }
+
+  @Override
+  protected void swap(int i, int j) {
+    swap(arr, i, j);
+  }
+
+  @Override
+  protected void copy(int src, int dest) {
+    arr[dest] = arr[src];
+  }
+
+  @Override
+  protected void save(int i, int j) {
+    tmp[j] = arr[i];
+  }
+
+  @Override
+  protected void restore(int i, int j) {
+    arr[j] = tmp[i];
+  }
+
+  @Override
+  protected int compareSaved(int i, int j) {
+    return tmp[i] < tmp[j] ? -1 : tmp[i] == tmp[j] ? 0 : 1;
+  }
+
+  @Override
+  protected boolean canCompareSavedToSlot() {
+    return true;
+  }
+
+  @Override
+  protected int compareSavedToSlot(int i, int j) {
+    return tmp[i] < arr[j] ? -1 : tmp[i] == arr[j] ? 0 : 1;
+  }
+
+  @Override
+  protected void saveMerged(int from, int mid, int to, int dest) {
+    merge(arr, from, mid, to, tmp, dest);
+  }
+
+  @Override
+  protected void restoreMerged(int from, int mid, int to, int dest) {
+    merge(tmp, from, mid, to, arr, dest);
+  }
+
+}
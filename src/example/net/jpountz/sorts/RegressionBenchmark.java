@@ -0,0 +1,173 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Detects performance regressions of the sorters of {@link Benchmark} on
+ * every {@link Distribution}.
+ * <p><code>record &lt;file&gt;</code> stores the number of comparisons and
+ * the best time out of several runs of every sorter on every distribution
+ * into a baseline file, and <code>check &lt;file&gt;</code> runs the same
+ * measurements again and exits with a non-zero status if a sorter performs
+ * more comparisons or is slower than in the baseline. Comparison counts are
+ * deterministic given the seed, while times are only reported as
+ * regressions when they exceed the baseline by more than a tolerance.
+ * <p>System properties: <code>length</code> and <code>seed</code> of the
+ * inputs (<code>check</code> uses those of the baseline),
+ * <code>runs</code>, <code>tolerance.comparisons</code> and
+ * <code>tolerance.time</code>, as ratios.
+ */
+public class RegressionBenchmark {
+
+  static long comparisons;
+
+  /** A value that counts comparisons. */
+  static final class Key implements Comparable<Key> {
+
+    final int value;
+
+    Key(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public int compareTo(Key other) {
+      ++comparisons;
+      return value < other.value ? -1 : value == other.value ? 0 : 1;
+    }
+
+  }
+
+  static Properties measure(int length, long seed, int runs) {
+    final Key[] array = new Key[length];
+    final Key[] input = new Key[length];
+    final Map<String, Sorter> sorters = Benchmark.sorters(array);
+    final Properties results = new Properties();
+    results.setProperty("length", Integer.toString(length));
+    results.setProperty("seed", Long.toString(seed));
+
+    // JVM warming
+    for (Distribution distribution : Distribution.values()) {
+      final int[] values = distribution.generate(length, seed);
+      for (int i = 0; i < length; ++i) {
+        input[i] = new Key(values[i]);
+      }
+      for (Sorter sorter : sorters.values()) {
+        System.arraycopy(input, 0, array, 0, length);
+        sorter.sort(0, length);
+      }
+    }
+
+    for (Distribution distribution : Distribution.values()) {
+      final int[] v = distribution.generate(length, seed);
+      for (int i = 0; i < length; ++i) {
+        input[i] = new Key(v[i]);
+      }
+      for (Map.Entry<String, Sorter> entry : sorters.entrySet()) {
+        final String key = entry.getKey() + "." + distribution;
+        final Sorter sorter = entry.getValue();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < runs; ++i) {
+          System.arraycopy(input, 0, array, 0, length);
+          comparisons = 0;
+          final long start = System.nanoTime();
+          sorter.sort(0, length);
+          best = Math.min(best, System.nanoTime() - start);
+        }
+        results.setProperty(key + ".comparisons", Long.toString(comparisons));
+        results.setProperty(key + ".nanos", Long.toString(best));
+      }
+    }
+    return results;
+  }
+
+  /** Return a description of every measurement of <code>current</code> that
+   *  exceeds its baseline by more than the given tolerance. */
+  static List<String> regressions(Properties baseline, Properties current, double comparisonsTolerance, double timeTolerance) {
+    final List<String> regressions = new ArrayList<String>();
+    for (String key : baseline.stringPropertyNames()) {
+      final double tolerance;
+      if (key.endsWith(".comparisons")) {
+        tolerance = comparisonsTolerance;
+      } else if (key.endsWith(".nanos")) {
+        tolerance = timeTolerance;
+      } else {
+        continue;
+      }
+      final String value = current.getProperty(key);
+      if (value == null) {
+        // sorter or distribution has been removed
+        continue;
+      }
+      final long expected = Long.parseLong(baseline.getProperty(key));
+      final long actual = Long.parseLong(value);
+      if (actual > expected * (1 + tolerance)) {
+        regressions.add(key + ": " + actual + " > " + expected);
+      }
+    }
+    Collections.sort(regressions);
+    return regressions;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2 || !(args[0].equals("record") || args[0].equals("check"))) {
+      System.err.println("Usage: RegressionBenchmark record|check <baseline file>");
+      System.exit(2);
+    }
+    final int runs = Integer.getInteger("runs", 10);
+
+    if (args[0].equals("record")) {
+      final Properties results = measure(Integer.getInteger("length", 1 << 20), Long.getLong("seed", 0L), runs);
+      final OutputStream out = new FileOutputStream(args[1]);
+      try {
+        results.store(out, "Sorter baseline, see RegressionBenchmark");
+      } finally {
+        out.close();
+      }
+      return;
+    }
+
+    final Properties baseline = new Properties();
+    final InputStream in = new FileInputStream(args[1]);
+    try {
+      baseline.load(in);
+    } finally {
+      in.close();
+    }
+    final Properties results = measure(Integer.parseInt(baseline.getProperty("length")), Long.parseLong(baseline.getProperty("seed")), runs);
+    final double comparisonsTolerance = Double.parseDouble(System.getProperty("tolerance.comparisons", "0"));
+    final double timeTolerance = Double.parseDouble(System.getProperty("tolerance.time", "0.25"));
+    final List<String> regressions = regressions(baseline, results, comparisonsTolerance, timeTolerance);
+    if (regressions.isEmpty()) {
+      System.out.println("No regression");
+    } else {
+      for (String regression : regressions) {
+        System.out.println(regression);
+      }
+      System.exit(1);
+    }
+  }
+
+}
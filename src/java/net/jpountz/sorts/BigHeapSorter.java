@@ -0,0 +1,32 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * A {@link BigSorter} implementation based on the heap-sort algorithm, see
+ * {@link HeapSorter}.
+ */
+public abstract class BigHeapSorter extends BigSorter {
+
+  /** Create a new {@link BigHeapSorter}. */
+  public BigHeapSorter() {}
+
+  @Override
+  public void sort(long from, long to) {
+    checkRange(from, to);
+    heapSort(from, to);
+  }
+
+}
@@ -0,0 +1,102 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * {@link BigSorter} implementation based on introsort, see
+ * {@link IntroSorter}. Small slices are sorted with insertion sort.
+ */
+public abstract class BigIntroSorter extends BigSorter {
+
+  static int ceilLog2(long n) {
+    return Long.SIZE - Long.numberOfLeadingZeros(n - 1);
+  }
+
+  /** Create a new {@link BigIntroSorter}. */
+  public BigIntroSorter() {}
+
+  @Override
+  public final void sort(long from, long to) {
+    checkRange(from, to);
+    quicksort(from, to, ceilLog2(to - from));
+  }
+
+  void quicksort(long from, long to, int maxDepth) {
+    if (to - from < THRESHOLD) {
+      insertionSort(from, to);
+      return;
+    } else if (--maxDepth < 0) {
+      heapSort(from, to);
+      return;
+    }
+
+    final long split = partition(from, to);
+    if (split < to) {
+      quicksort(from, split, maxDepth);
+      quicksort(split, to, maxDepth);
+    }
+  }
+
+  /** Partition the slice that starts at <code>from</code> and ends at
+   *  <code>to</code> and return a slot <code>split</code> so that
+   *  <code>from &lt; split &lt;= to</code> and all values in
+   *  <code>[from:split[</code> are less than or equal to values in
+   *  <code>[split:to[</code>, see {@link IntroSorter#partition(int, int)}. */
+  protected long partition(long from, long to) {
+    final long mid = (from + to) >>> 1;
+
+    if (compare(from, mid) > 0) {
+      swap(from, mid);
+    }
+
+    if (compare(mid, to - 1) > 0) {
+      swap(mid, to - 1);
+      if (compare(from, mid) > 0) {
+        swap(from, mid);
+      }
+    }
+
+    long left = from + 1;
+    long right = to - 2;
+
+    setPivot(mid);
+    for (;;) {
+      while (comparePivot(right) < 0) {
+        --right;
+      }
+
+      while (left < right && comparePivot(left) >= 0) {
+        ++left;
+      }
+
+      if (left < right) {
+        swap(left, right);
+        --right;
+      } else {
+        break;
+      }
+    }
+
+    return left + 1;
+  }
+
+  /** Save the value at slot <code>i</code> so that it can later be used as a
+   * pivot, see {@link #comparePivot(long)}. */
+  protected abstract void setPivot(long i);
+
+  /** Compare the pivot with the slot at <code>j</code>, similarly to
+   *  {@link #compare(long, long) compare(i, j)}. */
+  protected abstract int comparePivot(long j);
+}
@@ -0,0 +1,270 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Comparator;
+
+/** Base class for sorting algorithms implementations on data-structures that
+ *  may have more than {@link Integer#MAX_VALUE} slots, such as
+ *  {@link PagedLongArray}. This is the counterpart of {@link Sorter} with
+ *  slots that are addressed with longs. */
+public abstract class BigSorter {
+
+  static final int THRESHOLD = Sorter.THRESHOLD;
+
+  /** Sole constructor, used for inheritance. */
+  protected BigSorter() {}
+
+  /** Compare entries found in slots <code>i</code> and <code>j</code>.
+   *  The contract for the returned value is the same as
+   *  {@link Comparator#compare(Object, Object)}. */
+  protected abstract int compare(long i, long j);
+
+  /** Swap values at slots <code>i</code> and <code>j</code>. */
+  protected abstract void swap(long i, long j);
+
+  /** Sort the slice which starts at <code>from</code> (inclusive) and ends at
+   *  <code>to</code> (exclusive). */
+  public abstract void sort(long from, long to);
+
+  void checkRange(long from, long to) {
+    if (to < from) {
+      throw new IllegalArgumentException("'to' must be >= 'from', got from=" + from + " and to=" + to);
+    }
+  }
+
+  // see Sorter.mergeInPlace
+  void mergeInPlace(long from, long mid, long to) {
+    if (from == mid || mid == to || compare(mid - 1, mid) <= 0) {
+      return;
+    } else if (to - from == 2) {
+      swap(mid - 1, mid);
+      return;
+    }
+    while (compare(from, mid) <= 0) {
+      ++from;
+    }
+    while (compare(mid - 1, to - 1) <= 0) {
+      --to;
+    }
+    long first_cut, second_cut;
+    long len11, len22;
+    if (mid - from > to - mid) {
+      len11 = (mid - from) >>> 1;
+      first_cut = from + len11;
+      second_cut = lower(mid, to, first_cut);
+      len22 = second_cut - mid;
+    } else {
+      len22 = (to - mid) >>> 1;
+      second_cut = mid + len22;
+      first_cut = upper(from, mid, second_cut);
+      len11 = first_cut - from;
+    }
+    rotate(first_cut, mid, second_cut);
+    final long new_mid = first_cut + len22;
+    mergeInPlace(from, first_cut, new_mid);
+    mergeInPlace(new_mid, second_cut, to);
+  }
+
+  long lower(long from, long to, long val) {
+    long len = to - from;
+    while (len > 0) {
+      final long half = len >>> 1;
+      final long mid = from + half;
+      if (compare(mid, val) < 0) {
+        from = mid + 1;
+        len = len - half -1;
+      } else {
+        len = half;
+      }
+    }
+    return from;
+  }
+
+  long upper(long from, long to, long val) {
+    long len = to - from;
+    while (len > 0) {
+      final long half = len >>> 1;
+      final long mid = from + half;
+      if (compare(val, mid) < 0) {
+        len = half;
+      } else {
+        from = mid + 1;
+        len = len - half -1;
+      }
+    }
+    return from;
+  }
+
+  // faster than lower when val is at the end of [from:to[
+  long lower2(long from, long to, long val) {
+    long f = to - 1, t = to;
+    while (f > from) {
+      if (compare(f, val) < 0) {
+        return lower(f, t, val);
+      }
+      final long delta = t - f;
+      t = f;
+      f -= delta << 1;
+    }
+    return lower(from, t, val);
+  }
+
+  // faster than upper when val is at the beginning of [from:to[
+  long upper2(long from, long to, long val) {
+    long f = from, t = f + 1;
+    while (t < to) {
+      if (compare(t, val) > 0) {
+        return upper(f, t, val);
+      }
+      final long delta = t - f;
+      f = t;
+      t += delta << 1;
+    }
+    return upper(f, to, val);
+  }
+
+  // faster than lower when val is at the beginning of [from:to[
+  long lower3(long from, long to, long val) {
+    long f = from, t = f + 1;
+    while (t < to) {
+      if (compare(t, val) >= 0) {
+        return lower(f, t, val);
+      }
+      final long delta = t - f;
+      f = t;
+      t += delta << 1;
+    }
+    return lower(f, to, val);
+  }
+
+  // faster than upper when val is at the end of [from:to[
+  long upper3(long from, long to, long val) {
+    long f = to - 1, t = to;
+    while (f > from) {
+      if (compare(f, val) <= 0) {
+        return upper(f, t, val);
+      }
+      final long delta = t - f;
+      t = f;
+      f -= delta << 1;
+    }
+    return upper(from, t, val);
+  }
+
+  final void reverse(long from, long to) {
+    for (--to; from < to; ++from, --to) {
+      swap(from, to);
+    }
+  }
+
+  final void rotate(long lo, long mid, long hi) {
+    assert lo <= mid && mid <= hi;
+    if (lo == mid || mid == hi) {
+      return;
+    }
+    doRotate(lo, mid, hi);
+  }
+
+  void doRotate(long lo, long mid, long hi) {
+    if (mid - lo == hi - mid) {
+      // happens rarely but saves n/2 swaps
+      while (mid < hi) {
+        swap(lo++, mid++);
+      }
+    } else {
+      reverse(lo, mid);
+      reverse(mid, hi);
+      reverse(lo, hi);
+    }
+  }
+
+  void insertionSort(long from, long to) {
+    for (long i = from + 1; i < to; ++i) {
+      for (long j = i; j > from; --j) {
+        if (compare(j - 1, j) > 0) {
+          swap(j - 1, j);
+        } else {
+          break;
+        }
+      }
+    }
+  }
+
+  void binarySort(long from, long to, long i) {
+    for ( ; i < to; ++i) {
+      long l = from;
+      long h = i - 1;
+      while (l <= h) {
+        final long mid = (l + h) >>> 1;
+        final int cmp = compare(i, mid);
+        if (cmp < 0) {
+          h = mid - 1;
+        } else {
+          l = mid + 1;
+        }
+      }
+      for (long j = i; j > l; --j) {
+        swap(j - 1, j);
+      }
+    }
+  }
+
+  void heapSort(long from, long to) {
+    if (to - from <= 1) {
+      return;
+    }
+    for (long i = heapParent(from, to - 1); i >= from; --i) {
+      siftDown(i, from, to);
+    }
+    for (long end = to - 1; end > from; --end) {
+      swap(from, end);
+      siftDown(from, from, end);
+    }
+  }
+
+  // bottom-up, see Sorter.siftDown
+  void siftDown(long i, long from, long to) {
+    long j = i;
+    for (long leftChild = heapChild(from, j); leftChild < to; leftChild = heapChild(from, j)) {
+      final long rightChild = leftChild + 1;
+      j = rightChild < to && compare(leftChild, rightChild) < 0 ? rightChild : leftChild;
+    }
+    while (j != i && compare(i, j) > 0) {
+      j = heapParent(from, j);
+    }
+    // move slots of the path from i to j one level up
+    final int levels = heapLevel(from, j) - heapLevel(from, i);
+    long k = i;
+    for (int l = levels - 1; l >= 0; --l) {
+      final long next = ((j - from + 1) >>> l) - 1 + from;
+      swap(k, next);
+      k = next;
+    }
+  }
+
+  static long heapParent(long from, long i) {
+    return ((i - 1 - from) >>> 1) + from;
+  }
+
+  static long heapChild(long from, long i) {
+    return ((i - from) << 1) + 1 + from;
+  }
+
+  static int heapLevel(long from, long i) {
+    return 63 - Long.numberOfLeadingZeros(i - from + 1);
+  }
+
+}
@@ -0,0 +1,409 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+/**
+ * {@link BigSorter} implementation based on the TimSort algorithm, see
+ * {@link TimSorter}. The temporary storage is still addressed with ints:
+ * merges whose both sides are larger than <code>maxTempSlots</code> are
+ * split with rotations.
+ */
+public abstract class BigTimSorter extends BigSorter {
+
+  static final int MINRUN = TimSorter.MINRUN;
+  static final int THRESHOLD = TimSorter.THRESHOLD;
+  static final int STACKSIZE = 90; // depends on MINRUN
+  static final int MIN_GALLOP = TimSorter.MIN_GALLOP;
+
+  final int maxTempSlots;
+  int minRun;
+  long to;
+  int stackSize;
+  long[] runEnds;
+
+  /**
+   * Create a new {@link BigTimSorter}.
+   * @param maxTempSlots the maximum amount of extra memory to run merges, see {@link TimSorter}
+   */
+  protected BigTimSorter(int maxTempSlots) {
+    super();
+    runEnds = new long[1 + STACKSIZE];
+    this.maxTempSlots = maxTempSlots;
+  }
+
+  /** Minimum run length for an array of length <code>length</code>. */
+  static int minRun(long length) {
+    assert length >= MINRUN;
+    long n = length;
+    int r = 0;
+    while (n >= 64) {
+      r |= n & 1;
+      n >>>= 1;
+    }
+    final int minRun = (int) n + r;
+    assert minRun >= MINRUN && minRun <= THRESHOLD;
+    return minRun;
+  }
+
+  long runLen(int i) {
+    final int off = stackSize - i;
+    return runEnds[off] - runEnds[off - 1];
+  }
+
+  long runBase(int i) {
+    return runEnds[stackSize - i - 1];
+  }
+
+  long runEnd(int i) {
+    return runEnds[stackSize - i];
+  }
+
+  void setRunEnd(int i, long runEnd) {
+    runEnds[stackSize - i] = runEnd;
+  }
+
+  void pushRunLen(long len) {
+    runEnds[stackSize + 1] = runEnds[stackSize] + len;
+    ++stackSize;
+  }
+
+  /** Compute the length of the next run, make the run sorted and return its
+   *  length. */
+  long nextRun() {
+    final long runBase = runEnd(0);
+    assert runBase < to;
+    if (runBase == to - 1) {
+      return 1;
+    }
+    long o = runBase + 2;
+    if (compare(runBase, runBase+1) > 0) {
+      // run must be strictly descending
+      while (o < to && compare(o - 1, o) > 0) {
+        ++o;
+      }
+      reverse(runBase, o);
+    } else {
+      // run must be non-descending
+      while (o < to && compare(o - 1, o) <= 0) {
+        ++o;
+      }
+    }
+    final long runHi = Math.max(o, Math.min(to, runBase + minRun));
+    binarySort(runBase, runHi, o);
+    return runHi - runBase;
+  }
+
+  void ensureInvariants() {
+    while (stackSize > 1) {
+      final long runLen0 = runLen(0);
+      final long runLen1 = runLen(1);
+
+      if (stackSize > 2) {
+        final long runLen2 = runLen(2);
+
+        if (runLen2 <= runLen1 + runLen0) {
+          // merge the smaller of 0 and 2 with 1
+          if (runLen2 < runLen0) {
+            mergeAt(1);
+          } else {
+            mergeAt(0);
+          }
+          continue;
+        }
+      }
+
+      if (runLen1 <= runLen0) {
+        mergeAt(0);
+        continue;
+      }
+
+      break;
+    }
+  }
+
+  void exhaustStack() {
+    while (stackSize > 1) {
+      mergeAt(0);
+    }
+  }
+
+  void reset(long from, long to) {
+    stackSize = 0;
+    Arrays.fill(runEnds, 0);
+    runEnds[0] = from;
+    this.to = to;
+    final long length = to - from;
+    this.minRun = length <= THRESHOLD ? (int) length : minRun(length);
+  }
+
+  void mergeAt(int n) {
+    assert stackSize >= 2;
+    doMerge(runBase(n + 1), runBase(n), runEnd(n));
+    for (int j = n + 1; j > 0; --j) {
+      setRunEnd(j, runEnd(j-1));
+    }
+    --stackSize;
+  }
+
+  void doMerge(long lo, long mid, long hi) {
+    for (;;) {
+      if (lo == mid || mid == hi || compare(mid - 1, mid) <= 0) {
+        return;
+      }
+      lo = upper2(lo, mid, mid);
+      hi = lower2(mid, hi, mid - 1);
+
+      if (hi - mid <= mid - lo && hi - mid <= maxTempSlots) {
+        mergeHi(lo, mid, hi);
+        return;
+      } else if (mid - lo <= maxTempSlots) {
+        mergeLo(lo, mid, hi);
+        return;
+      }
+
+      // neither side fits in the temporary storage: if a run from one side
+      // is longer than the other side, move it to its final position with a
+      // rotation, which has a linear cost in the length of the run
+      if (mid - lo <= hi - mid) {
+        final long cut = lower3(mid, hi, lo);
+        if (cut - mid >= mid - lo) {
+          rotate(lo, mid, cut);
+          lo += cut - mid + 1;
+          mid = cut;
+          continue;
+        }
+      } else {
+        final long cut = upper3(lo, mid, hi - 1);
+        if (mid - cut >= hi - mid) {
+          rotate(cut, mid, hi);
+          hi -= mid - cut + 1;
+          mid = cut;
+          continue;
+        }
+      }
+
+      // neither side fits in the temporary storage, see Sorter.mergeInPlace
+      super.mergeInPlace(lo, mid, hi);
+      return;
+    }
+  }
+
+  @Override
+  void mergeInPlace(long lo, long mid, long hi) {
+    // use the temporary storage as soon as one side of the merge fits
+    doMerge(lo, mid, hi);
+  }
+
+  @Override
+  public void sort(long from, long to) {
+    checkRange(from, to);
+    if (to - from <= 1) {
+      return;
+    }
+    reset(from, to);
+    do {
+      ensureInvariants();
+      pushRunLen(nextRun());
+    } while (runEnd(0) < to);
+    exhaustStack();
+    assert runEnd(0) == to;
+  }
+
+  @Override
+  void doRotate(long lo, long mid, long hi) {
+    for (;;) {
+      final long len1 = mid - lo;
+      final long len2 = hi - mid;
+      if (len1 == len2) {
+        while (mid < hi) {
+          swap(lo++, mid++);
+        }
+        return;
+      } else if (len2 < len1 && len2 <= maxTempSlots) {
+        saveAll(mid, (int) len2);
+        for (long i = lo + len1 - 1, j = hi - 1; i >= lo; --i, --j) {
+          copy(i, j);
+        }
+        long j = lo;
+        for (int i = 0; i < len2; ++i, ++j) {
+          restore(i, j);
+        }
+        return;
+      } else if (len1 <= maxTempSlots) {
+        saveAll(lo, (int) len1);
+        for (long i = mid, j = lo; i < hi; ++i, ++j) {
+          copy(i, j);
+        }
+        long j = lo + len2;
+        for (int i = 0; j < hi; ++i, ++j) {
+          restore(i, j);
+        }
+        return;
+      } else if (len1 < len2) {
+        // swap [lo:mid[ with its final position at the end of the slice and
+        // keep rotating until one side fits in the temporary storage
+        for (long i = lo, j = hi - len1; i < mid; ++i, ++j) {
+          swap(i, j);
+        }
+        hi -= len1;
+      } else {
+        for (long i = lo, j = mid; j < hi; ++i, ++j) {
+          swap(i, j);
+        }
+        lo += len2;
+      }
+    }
+  }
+
+  void mergeLo(long lo, long mid, long hi) {
+    assert compare(lo, mid) > 0;
+    final int len1 = (int) (mid - lo);
+    saveAll(lo, len1);
+    copy(mid, lo);
+    int i = 0;
+    long j = mid + 1, dest = lo + 1;
+    outer: for (;;) {
+      for (int count = 0; count < MIN_GALLOP; ) {
+        if (i >= len1 || j >= hi) {
+          break outer;
+        } else if (compareSaved(i, j) <= 0) {
+          restore(i++, dest++);
+          count = 0;
+        } else {
+          copy(j++, dest++);
+          ++count;
+        }
+      }
+      // galloping...
+      long next = lowerSaved3(j, hi, i);
+      for (; j < next; ++dest) {
+        copy(j++, dest);
+      }
+      restore(i++, dest++);
+    }
+    for (; i < len1; ++dest) {
+      restore(i++, dest);
+    }
+    assert j == dest;
+  }
+
+  void mergeHi(long lo, long mid, long hi) {
+    assert compare(mid - 1, hi - 1) > 0;
+    final int len2 = (int) (hi - mid);
+    saveAll(mid, len2);
+    copy(mid - 1, hi - 1);
+    long i = mid - 2, dest = hi - 2;
+    int j = len2 - 1;
+    outer: for (;;) {
+      for (int count = 0; count < MIN_GALLOP; ) {
+        if (i < lo || j < 0) {
+          break outer;
+        } else if (compareSaved(j, i) >= 0) {
+          restore(j--, dest--);
+          count = 0;
+        } else {
+          copy(i--, dest--);
+          ++count;
+        }
+      }
+      // galloping
+      long next = upperSaved3(lo, i + 1, j);
+      while (i >= next) {
+        copy(i--, dest--);
+      }
+      restore(j--, dest--);
+    }
+    for (; j >= 0; --dest) {
+      restore(j--, dest);
+    }
+    assert i == dest;
+  }
+
+  long lowerSaved(long from, long to, int val) {
+    long len = to - from;
+    while (len > 0) {
+      final long half = len >>> 1;
+      final long mid = from + half;
+      if (compareSaved(val, mid) > 0) {
+        from = mid + 1;
+        len = len - half -1;
+      } else {
+        len = half;
+      }
+    }
+    return from;
+  }
+
+  long upperSaved(long from, long to, int val) {
+    long len = to - from;
+    while (len > 0) {
+      final long half = len >>> 1;
+      final long mid = from + half;
+      if (compareSaved(val, mid) < 0) {
+        len = half;
+      } else {
+        from = mid + 1;
+        len = len - half -1;
+      }
+    }
+    return from;
+  }
+
+  // faster than lowerSaved when val is at the beginning of [from:to[
+  long lowerSaved3(long from, long to, int val) {
+    long f = from, t = f + 1;
+    while (t < to) {
+      if (compareSaved(val, t) <= 0) {
+        return lowerSaved(f, t, val);
+      }
+      long delta = t - f;
+      f = t;
+      t += delta << 1;
+    }
+    return lowerSaved(f, to, val);
+  }
+
+  //faster than upperSaved when val is at the end of [from:to[
+  long upperSaved3(long from, long to, int val) {
+    long f = to - 1, t = to;
+    while (f > from) {
+      if (compareSaved(val, f) >= 0) {
+        return upperSaved(f, t, val);
+      }
+      final long delta = t - f;
+      t = f;
+      f -= delta << 1;
+    }
+    return upperSaved(from, t, val);
+  }
+
+  /** Copy data from slot <code>src</code> to slot <code>dest</code>. */
+  protected abstract void copy(long src, long dest);
+
+  /** Save all elements between slots <code>i</code> and <code>i+len</code>
+   *  into the temporary storage. */
+  protected abstract void saveAll(long i, int len);
+
+  /** Restore element <code>i</code> from the temporary storage into slot <code>j</code>. */
+  protected abstract void restore(int i, long j);
+
+  /** Compare element <code>i</code> from the temporary storage with element
+   *  <code>j</code> from the slice to sort, similarly to
+   *  {@link #compare(long, long)}. */
+  protected abstract int compareSaved(int i, long j);
+
+}
@@ -0,0 +1,244 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Stable {@link Sorter} implementation based on a block merge sort which, like
+ * <a href="https://github.com/Mrrl/GrailSort">GrailSort</a>, doesn't require
+ * extra memory and runs in O(n ln(n)).
+ * <p>About <code>2*sqrt(n)</code> distinct values are first moved to the
+ * beginning of the slice: half of them are used as an internal buffer to merge
+ * runs and the other half as tags to keep track of the origin of blocks while
+ * merging large runs. These values are eventually merged back with the rest
+ * of the slice.
+ * <p>If the slice doesn't contain enough distinct values, large merges will be
+ * performed with the same in-place merge routine as
+ * {@link InPlaceMergeSorter}.
+ */
+public abstract class BlockMergeSorter extends Sorter {
+
+  static final int MIN_RUN = 16; // must be a power of two
+  static final int MIN_KEYS = 4;
+
+  /** Create a new {@link BlockMergeSorter}. */
+  public BlockMergeSorter() {}
+
+  @Override
+  public final void sort(int from, int to) {
+    checkRange(from, to);
+    blockMergeSort(from, to);
+  }
+
+  void blockMergeSort(int from, int to) {
+    final int len = to - from;
+    if (len < THRESHOLD) {
+      insertionSort(from, to);
+      return;
+    }
+    // smallest power of two whose square is >= len
+    final int blockLen = 1 << ((IntroSorter.ceilLog2(len) + 1) >>> 1);
+    final int blockCount = (len - 1) / blockLen + 1;
+    final int keys = collectKeys(from, to, blockCount + blockLen);
+    if (keys < MIN_KEYS) {
+      mergeRuns(from, 0, from, 0, from, to);
+      return;
+    }
+    final int bufLen = keys >= blockCount + blockLen
+        ? blockLen
+        : Integer.highestOneBit(keys >>> 1);
+    final int buf = from + keys - bufLen;
+    mergeRuns(from, keys - bufLen, buf, bufLen, buf + bufLen, to);
+    // keys and buffer values are distinct so there is no need for a stable sort
+    heapSort(from, buf + bufLen);
+    mergeWithoutBuffer(from, buf + bufLen, to);
+  }
+
+  /** Move up to <code>wanted</code> distinct values to the beginning of the
+   *  slice, in sorted order, and return how many of them could be found. */
+  int collectKeys(int from, int to, int wanted) {
+    int keysStart = from, keys = 1;
+    for (int i = from + 1; i < to && keys < wanted; ++i) {
+      final int r = lower(keysStart, keysStart + keys, i);
+      if (r == keysStart + keys || compare(r, i) != 0) {
+        // move the keys next to i and insert i
+        rotate(keysStart, keysStart + keys, i);
+        final int newKeysStart = i - keys;
+        rotate(r + newKeysStart - keysStart, i, i + 1);
+        keysStart = newKeysStart;
+        ++keys;
+      }
+    }
+    rotate(from, keysStart, keysStart + keys);
+    return keys;
+  }
+
+  /** Bottom-up merge sort of <code>[from:to[</code> using the buffer at
+   *  <code>[buf:buf+bufLen[</code> and <code>keyCount</code> keys that start
+   *  at <code>keysFrom</code>. */
+  void mergeRuns(int keysFrom, int keyCount, int buf, int bufLen, int from, int to) {
+    for (int i = from; i < to; i += MIN_RUN) {
+      insertionSort(i, Math.min(to, i + MIN_RUN));
+    }
+    for (int runLen = MIN_RUN; runLen < to - from; runLen <<= 1) {
+      for (int lo = from; to - lo > runLen; lo += runLen << 1) {
+        final int mid = lo + runLen;
+        final int hi = to - mid > runLen ? mid + runLen : to;
+        if (compare(mid - 1, mid) <= 0) {
+          continue;
+        }
+        if (runLen <= bufLen) {
+          mergeWithBuffer(lo, mid, hi, buf, true);
+        } else if (bufLen == 0 || runLen / bufLen + (hi - mid) / bufLen > keyCount) {
+          mergeInPlace(lo, mid, hi);
+        } else {
+          final int blocksEnd = mid + (hi - mid) / bufLen * bufLen;
+          if (blocksEnd > mid) {
+            mergeBlocks(keysFrom, lo, runLen / bufLen, (blocksEnd - mid) / bufLen, buf, bufLen);
+          }
+          if (blocksEnd < hi) {
+            mergeWithBufferBackward(lo, blocksEnd, hi, buf);
+          }
+        }
+      }
+    }
+  }
+
+  /** Merge <code>blocksA</code> blocks of length <code>blockLen</code>
+   *  starting at <code>lo</code> with the <code>blocksB</code> blocks that
+   *  follow. */
+  void mergeBlocks(int keysFrom, int lo, int blocksA, int blocksB, int buf, int blockLen) {
+    final int blocks = blocksA + blocksB;
+    int midKey = keysFrom + blocksA;
+    // selection sort of blocks by their first value, keys break ties
+    for (int k = 0; k < blocks - 1; ++k) {
+      int min = k;
+      for (int l = k + 1; l < blocks; ++l) {
+        final int cmp = compare(lo + l * blockLen, lo + min * blockLen);
+        if (cmp < 0 || (cmp == 0 && compare(keysFrom + l, keysFrom + min) < 0)) {
+          min = l;
+        }
+      }
+      if (min != k) {
+        swapRange(lo + k * blockLen, lo + min * blockLen, blockLen);
+        swap(keysFrom + k, keysFrom + min);
+        if (midKey == keysFrom + k) {
+          midKey = keysFrom + min;
+        } else if (midKey == keysFrom + min) {
+          midKey = keysFrom + k;
+        }
+      }
+    }
+
+    // merge blocks that come from different runs
+    int restLen = blockLen;
+    boolean restFromA = compare(keysFrom, midKey) < 0;
+    for (int k = 1; k < blocks; ++k) {
+      final int blockStart = lo + k * blockLen;
+      final boolean fromA = compare(keysFrom + k, midKey) < 0;
+      if (fromA == restFromA) {
+        restLen = blockLen;
+      } else {
+        final int rest = mergeWithBuffer(blockStart - restLen, blockStart, blockStart + blockLen, buf, restFromA);
+        if (rest > 0) {
+          restLen = rest;
+        } else {
+          restLen = -rest;
+          restFromA = fromA;
+        }
+      }
+    }
+
+    // restore the order of keys, they are distinct so stability doesn't matter
+    heapSort(keysFrom, keysFrom + blocks);
+  }
+
+  /** Merge <code>[lo:mid[</code> with <code>[mid:hi[</code> using the buffer
+   *  that starts at <code>buf</code>, which must be at least
+   *  <code>mid-lo</code> long. Ties are resolved in favor of the left side if
+   *  <code>leftFirst</code> is true. Return the number of trailing elements
+   *  from the left side if the right side got exhausted first, or minus the
+   *  number of trailing elements from the right side otherwise. */
+  int mergeWithBuffer(int lo, int mid, int hi, int buf, boolean leftFirst) {
+    final int len1 = mid - lo;
+    swapRange(lo, buf, len1);
+    final int iend = buf + len1;
+    int i = buf, j = mid, dest = lo;
+    if (leftFirst) {
+      while (i < iend && j < hi) {
+        if (compare(i, j) <= 0) {
+          swap(dest++, i++);
+        } else {
+          swap(dest++, j++);
+        }
+      }
+    } else {
+      while (i < iend && j < hi) {
+        if (compare(i, j) < 0) {
+          swap(dest++, i++);
+        } else {
+          swap(dest++, j++);
+        }
+      }
+    }
+    if (i < iend) {
+      final int rest = iend - i;
+      while (i < iend) {
+        swap(dest++, i++);
+      }
+      return rest;
+    }
+    return -(hi - j);
+  }
+
+  /** Merge <code>[lo:mid[</code> with <code>[mid:hi[</code> using the buffer
+   *  that starts at <code>buf</code>, which must be at least
+   *  <code>hi-mid</code> long. */
+  void mergeWithBufferBackward(int lo, int mid, int hi, int buf) {
+    if (compare(mid - 1, mid) <= 0) {
+      return;
+    }
+    final int len2 = hi - mid;
+    swapRange(mid, buf, len2);
+    int i = mid - 1, j = buf + len2 - 1, dest = hi - 1;
+    while (i >= lo && j >= buf) {
+      if (compare(j, i) >= 0) {
+        swap(dest--, j--);
+      } else {
+        swap(dest--, i--);
+      }
+    }
+    while (j >= buf) {
+      swap(dest--, j--);
+    }
+  }
+
+  /** Merge a short slice <code>[from:mid[</code> with <code>[mid:to[</code>
+   *  using rotations. */
+  void mergeWithoutBuffer(int from, int mid, int to) {
+    while (from < mid && mid < to) {
+      final int p = lower(mid, to, from);
+      rotate(from, mid, p);
+      from += p - mid + 1;
+      mid = p;
+    }
+  }
+
+  void swapRange(int i, int j, int len) {
+    for (int k = 0; k < len; ++k) {
+      swap(i + k, j + k);
+    }
+  }
+
+}
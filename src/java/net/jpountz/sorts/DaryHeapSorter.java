@@ -0,0 +1,55 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * A {@link Sorter} implementation based on the heap-sort algorithm on a
+ * d-ary heap, where d is a power of two. The children of a node are stored
+ * in contiguous slots and every group of siblings starts at a multiple of d
+ * relative to <code>from</code>, so that on large arrays, a wider heap is
+ * both shallower and incurs fewer cache misses per level than a binary heap,
+ * at the cost of more comparisons. Sibling groups are aligned on cache lines
+ * when <code>from</code> is.
+ */
+public abstract class DaryHeapSorter extends Sorter {
+
+  static int logArity(int arity) {
+    if (arity < 2 || arity > 64 || Integer.bitCount(arity) != 1) {
+      throw new IllegalArgumentException("arity must be a power of two between 2 and 64, got " + arity);
+    }
+    return Integer.numberOfTrailingZeros(arity);
+  }
+
+  // 0 for a binary heap, which is sorted with Sorter's binary heapsort
+  private final int logArity;
+
+  /** Create a new {@link DaryHeapSorter} on a heap of the given arity,
+   *  typically 4 or 8. */
+  public DaryHeapSorter(int arity) {
+    final int logArity = logArity(arity);
+    this.logArity = logArity == 1 ? 0 : logArity;
+  }
+
+  @Override
+  public void sort(int from, int to) {
+    checkRange(from, to);
+    if (logArity == 0) {
+      heapSort(from, to);
+    } else {
+      heapSort(from, to, logArity);
+    }
+  }
+
+}
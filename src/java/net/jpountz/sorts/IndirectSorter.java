@@ -0,0 +1,252 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.util.Arrays;
+
+/**
+ * Sorts ids of records instead of the records themselves (also known as
+ * argsort): records stay where they are and the result is a permutation of
+ * their ids. This is useful when records are expensive to swap.
+ * <p>Stable sorts use {@link TimSorter} and unstable sorts use
+ * {@link IntroSorter}.
+ * <p>{@link PrefixIndirectSorter} additionally caches a prefix of the key
+ * of every record next to its id.
+ * <p>The temporary storage and the sorters that sort ids are reused across
+ * calls to <code>sort</code>, so an instance must not be used by several
+ * threads at the same time.
+ */
+public abstract class IndirectSorter {
+
+  private final boolean stable;
+  private final boolean cachePrefixes;
+  private long[] prefixes;
+  private IdIntroSorter introSorter;
+  private IdTimSorter timSorter;
+
+  /**
+   * Create a new {@link IndirectSorter}.
+   * @param stable whether equal records should keep their relative order
+   */
+  protected IndirectSorter(boolean stable) {
+    this(stable, false);
+  }
+
+  IndirectSorter(boolean stable, boolean cachePrefixes) {
+    this.stable = stable;
+    this.cachePrefixes = cachePrefixes;
+    prefixes = new long[0];
+  }
+
+  /** Return the ids of <code>[from:to[</code> sorted by their records. */
+  public final int[] sort(int from, int to) {
+    if (to < from) {
+      throw new IllegalArgumentException("'to' must be >= 'from', got from=" + from + " and to=" + to);
+    }
+    final int[] ids = new int[to - from];
+    for (int i = 0; i < ids.length; ++i) {
+      ids[i] = from + i;
+    }
+    sort(ids, 0, ids.length);
+    return ids;
+  }
+
+  /** Sort ids that are stored in <code>ids[from:to[</code> by their
+   *  records. */
+  public final void sort(int[] ids, int from, int to) {
+    if (to < from) {
+      throw new IllegalArgumentException("'to' must be >= 'from', got from=" + from + " and to=" + to);
+    }
+    long[] prefixes = null;
+    if (cachePrefixes) {
+      if (this.prefixes.length < to - from) {
+        this.prefixes = new long[to - from];
+      }
+      prefixes = this.prefixes;
+      for (int i = from; i < to; ++i) {
+        prefixes[i - from] = prefix(ids[i]);
+      }
+    }
+    if (stable) {
+      if (timSorter == null) {
+        timSorter = new IdTimSorter();
+      }
+      timSorter.reset(ids, prefixes, from);
+      timSorter.sort(from, to);
+    } else {
+      if (introSorter == null) {
+        introSorter = new IdIntroSorter();
+      }
+      introSorter.reset(ids, prefixes, from);
+      introSorter.sort(from, to);
+    }
+  }
+
+  int compare(int id1, long prefix1, int id2, long prefix2) {
+    if (cachePrefixes && prefix1 != prefix2) {
+      return prefix1 < prefix2 ? -1 : 1;
+    }
+    return compare(id1, id2);
+  }
+
+  /** Compare records <code>a</code> and <code>b</code> and return a negative
+   *  value if <code>a</code> sorts before <code>b</code>, 0 if they are
+   *  equal and a positive value otherwise. */
+  protected abstract int compare(int a, int b);
+
+  // only called if prefixes are cached, see PrefixIndirectSorter
+  long prefix(int id) {
+    throw new AssertionError();
+  }
+
+  private final class IdIntroSorter extends IntroSorter {
+
+    private int[] ids;
+    private long[] prefixes;
+    private int base;
+    private int pivotId;
+    private long pivotPrefix;
+
+    void reset(int[] ids, long[] prefixes, int base) {
+      this.ids = ids;
+      this.prefixes = prefixes;
+      this.base = base;
+    }
+
+    @Override
+    protected int compare(int i, int j) {
+      if (prefixes == null) {
+        return IndirectSorter.this.compare(ids[i], ids[j]);
+      }
+      return IndirectSorter.this.compare(ids[i], prefixes[i - base], ids[j], prefixes[j - base]);
+    }
+
+    @Override
+    protected void swap(int i, int j) {
+      swap(ids, i, j);
+      if (prefixes != null) {
+        swap(prefixes, i - base, j - base);
+      }
+    }
+
+    @Override
+    protected void setPivot(int i) {
+      pivotId = ids[i];
+      if (prefixes != null) {
+        pivotPrefix = prefixes[i - base];
+      }
+    }
+
+    @Override
+    protected int comparePivot(int j) {
+      if (prefixes == null) {
+        return IndirectSorter.this.compare(pivotId, ids[j]);
+      }
+      return IndirectSorter.this.compare(pivotId, pivotPrefix, ids[j], prefixes[j - base]);
+    }
+
+  }
+
+  private final class IdTimSorter extends TimSorter {
+
+    private int[] ids;
+    private long[] prefixes;
+    private int base;
+    private int[] savedIds;
+    private long[] savedPrefixes;
+
+    IdTimSorter() {
+      // merges never need more than half of the slice
+      super(Integer.MAX_VALUE);
+      savedIds = new int[0];
+      savedPrefixes = new long[0];
+    }
+
+    void reset(int[] ids, long[] prefixes, int base) {
+      this.ids = ids;
+      this.prefixes = prefixes;
+      this.base = base;
+    }
+
+    @Override
+    protected int compare(int i, int j) {
+      if (prefixes == null) {
+        return IndirectSorter.this.compare(ids[i], ids[j]);
+      }
+      return IndirectSorter.this.compare(ids[i], prefixes[i - base], ids[j], prefixes[j - base]);
+    }
+
+    @Override
+    protected void swap(int i, int j) {
+      swap(ids, i, j);
+      if (prefixes != null) {
+        swap(prefixes, i - base, j - base);
+      }
+    }
+
+    @Override
+    protected void copy(int src, int dest) {
+      ids[dest] = ids[src];
+      if (prefixes != null) {
+        prefixes[dest - base] = prefixes[src - base];
+      }
+    }
+
+    @Override
+    protected void saveAll(int i, int len) {
+      if (savedIds.length < len) {
+        savedIds = new int[ObjectArraySorter.grow(savedIds.length, len, Integer.MAX_VALUE)];
+      }
+      System.arraycopy(ids, i, savedIds, 0, len);
+      if (prefixes != null) {
+        if (savedPrefixes.length < len) {
+          savedPrefixes = new long[savedIds.length];
+        }
+        System.arraycopy(prefixes, i - base, savedPrefixes, 0, len);
+      }
+    }
+
+    @Override
+    protected void save(int i, int j) {
+      if (j >= savedIds.length) {
+        savedIds = Arrays.copyOf(savedIds, ObjectArraySorter.grow(savedIds.length, j + 1, Integer.MAX_VALUE));
+      }
+      savedIds[j] = ids[i];
+      if (prefixes != null) {
+        if (j >= savedPrefixes.length) {
+          savedPrefixes = Arrays.copyOf(savedPrefixes, savedIds.length);
+        }
+        savedPrefixes[j] = prefixes[i - base];
+      }
+    }
+
+    @Override
+    protected void restore(int i, int j) {
+      ids[j] = savedIds[i];
+      if (prefixes != null) {
+        prefixes[j - base] = savedPrefixes[i];
+      }
+    }
+
+    @Override
+    protected int compareSaved(int i, int j) {
+      if (prefixes == null) {
+        return IndirectSorter.this.compare(savedIds[i], ids[j]);
+      }
+      return IndirectSorter.this.compare(savedIds[i], savedPrefixes[i], ids[j], prefixes[j - base]);
+    }
+
+  }
+
+}
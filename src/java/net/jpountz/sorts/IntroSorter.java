@@ -19,33 +19,168 @@ package net.jpountz.sorts;
  * called <a href="http://en.wikipedia.org/wiki/Introsort">introsort</a>: when
  * the recursion level exceeds the log of the length of the array to sort, it
  * falls back to heapsort. This prevents quicksort from running into its
- * worst-case quadratic runtime. Small arrays are sorted with
- * {@link InsertionSorter}.
+ * worst-case quadratic runtime. Small arrays are sorted with optimal sorting
+ * networks.
  */
 public abstract class IntroSorter extends Sorter {
 
+  // whether small slices should be sorted with sorting networks rather than
+  // with insertion sort
+  static final boolean SORTING_NETWORKS = true;
+  // slices shorter than that go to sortSmall, whose documentation assumes
+  // it is MAX_NETWORK_LENGTH + 1
+  static final int SMALL_THRESHOLD = SORTING_NETWORKS ? MAX_NETWORK_LENGTH + 1 : THRESHOLD;
+
   static int ceilLog2(int n) {
     return Integer.SIZE - Integer.numberOfLeadingZeros(n - 1);
   }
 
+  // arity of the heap of the heapsort fallback, 0 for a binary heap
+  private final int heapLogArity;
+
   /** Create a new {@link IntroSorter}. */
-  public IntroSorter() {}
+  public IntroSorter() {
+    heapLogArity = 0;
+  }
+
+  /** Create a new {@link IntroSorter} that falls back to heapsort on a heap
+   *  of the given arity, see {@link DaryHeapSorter}. */
+  public IntroSorter(int heapArity) {
+    final int logArity = DaryHeapSorter.logArity(heapArity);
+    heapLogArity = logArity == 1 ? 0 : logArity;
+  }
 
   @Override
   public final void sort(int from, int to) {
     checkRange(from, to);
-    quicksort(from, to, ceilLog2(to - from));
+    startEvent("IntroSorter", from, to, -1);
+    try {
+      quicksort(from, to, ceilLog2(to - from));
+    } finally {
+      endEvent();
+    }
+  }
+
+  /** Return an iterator over the slots of <code>[from:to[</code> that sorts
+   *  them lazily: extracting the first <code>k</code> values in sorted order
+   *  only costs <code>O(n + k ln(k))</code>. The slice must not be modified
+   *  by other means while it is being iterated. */
+  public final SortedIterator sortedIterator(int from, int to) {
+    checkRange(from, to);
+    return new SortedIterator(from, to);
+  }
+
+  /** An iterator over slots in sorted order, that keeps partitioning the
+   *  slice on demand and remembers the ends of pending partitions in a
+   *  stack. */
+  public final class SortedIterator {
+
+    private final int to;
+    private final int[] ends;
+    private final int[] depths;
+    private int stackSize;
+    private int next;
+    private int sortedTo;
+
+    SortedIterator(int from, int to) {
+      this.to = to;
+      final int maxDepth = ceilLog2(to - from);
+      ends = new int[maxDepth + 1];
+      depths = new int[maxDepth + 1];
+      ends[0] = to;
+      depths[0] = maxDepth;
+      stackSize = 1;
+      next = sortedTo = from;
+    }
+
+    /** Return true if there are slots left to iterate. */
+    public boolean hasNext() {
+      return next < to;
+    }
+
+    /** Return the next slot in sorted order. Once this method returns, this
+     *  slot and all slots that have been returned before it hold their final
+     *  values. */
+    public int next() {
+      if (next >= to) {
+        throw new java.util.NoSuchElementException();
+      }
+      while (next == sortedTo) {
+        final int end = ends[stackSize - 1];
+        final int maxDepth = depths[stackSize - 1] - 1;
+        if (end - next < SMALL_THRESHOLD) {
+          sortSmall(next, end);
+        } else if (maxDepth < 0) {
+          fallbackSort(next, end);
+        } else {
+          final int split = partition(next, end);
+          if (split < end) {
+            depths[stackSize - 1] = maxDepth;
+            ends[stackSize] = split;
+            depths[stackSize] = maxDepth;
+            ++stackSize;
+            continue;
+          }
+        }
+        sortedTo = end;
+        --stackSize;
+      }
+      return next++;
+    }
+
+  }
+
+  void fallbackSort(int from, int to) {
+    if (event != null) {
+      ++event.heapSortFallbacks;
+    }
+    if (heapLogArity == 0) {
+      heapSort(from, to);
+    } else {
+      heapSort(from, to, heapLogArity);
+    }
   }
 
   void quicksort(int from, int to, int maxDepth) {
-    if (to - from < THRESHOLD) {
-      insertionSort(from, to);
+    if (to - from < SMALL_THRESHOLD) {
+      sortSmall(from, to);
       return;
     } else if (--maxDepth < 0) {
-      heapSort(from, to);
+      fallbackSort(from, to);
       return;
     }
 
+    final int split = partition(from, to);
+    if (split < to) {
+      quicksort(from, split, maxDepth);
+      quicksort(split, to, maxDepth);
+    }
+  }
+
+  /** Sort a small slice, of at most 16 slots, which is the length of the
+   *  largest sorting network. The default implementation uses an optimal
+   *  sorting network, implementations backed by primitive arrays can
+   *  override it to use a faster routine such as
+   *  {@link Sorter#insertionSort(int[], int, int)}. */
+  protected void sortSmall(int from, int to) {
+    if (SORTING_NETWORKS) {
+      networkSort(from, to);
+    } else {
+      insertionSort(from, to);
+    }
+  }
+
+  /** Partition the slice that starts at <code>from</code> and ends at
+   *  <code>to</code> and return a slot <code>split</code> so that
+   *  <code>from &lt; split &lt;= to</code> and all values in
+   *  <code>[from:split[</code> are less than or equal to values in
+   *  <code>[split:to[</code>. Returning <code>to</code> means that the slice
+   *  is sorted.
+   *  <p>The default implementation uses the median of three values as a
+   *  pivot, see {@link #setPivot(int)}. Implementations backed by primitive
+   *  arrays can override it to use a faster routine such as
+   *  {@link Sorter#partition(int[], int, int)}. */
+  protected int partition(int from, int to) {
     final int mid = (from + to) >>> 1;
 
     if (compare(from, mid) > 0) {
@@ -80,8 +215,7 @@ public abstract class IntroSorter extends Sorter {
       }
     }
 
-    quicksort(from, left + 1, maxDepth);
-    quicksort(left + 1, to, maxDepth);
+    return left + 1;
   }
 
   /** Save the value at slot <code>i</code> so that it can later be used as a
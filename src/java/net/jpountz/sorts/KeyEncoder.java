@@ -0,0 +1,169 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+
+/**
+ * Order-preserving encodings of keys, to sort them with unsigned
+ * comparisons, byte-wise bucketing (such as radix sorts) or cached
+ * prefixes (see {@link PrefixIndirectSorter}).
+ * <p>Encoded ints and longs must be compared as unsigned integers, see
+ * {@link #compareUnsigned(long, long)}, and their bytes are ordered
+ * lexicographically once written in big-endian order, see
+ * {@link #writeLong(long, byte[], int)}. Flipping the sign bit of an encoded
+ * value (<code>key ^ Long.MIN_VALUE</code>) makes it comparable as a signed
+ * integer, and inverting all its bits (<code>~key</code>) reverses the
+ * order.
+ */
+public final class KeyEncoder {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private KeyEncoder() {}
+
+  /** Encode a boolean, <code>false</code> sorts first. */
+  public static int encodeBoolean(boolean v) {
+    return v ? 1 : 0;
+  }
+
+  /** Encode a signed int. */
+  public static int encodeInt(int v) {
+    return v ^ Integer.MIN_VALUE;
+  }
+
+  /** Encode a signed long. */
+  public static long encodeLong(long v) {
+    return v ^ Long.MIN_VALUE;
+  }
+
+  /** Encode a float consistently with {@link Float#compare(float, float)}:
+   *  <code>-0f</code> sorts before <code>0f</code> and NaN sorts last. */
+  public static int encodeFloat(float v) {
+    final int bits = Float.floatToIntBits(v);
+    // flip all bits of negative values and only the sign bit of positive ones
+    return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+  }
+
+  /** Encode a double consistently with
+   *  {@link Double#compare(double, double)}: <code>-0d</code> sorts before
+   *  <code>0d</code> and NaN sorts last. */
+  public static long encodeDouble(double v) {
+    final long bits = Double.doubleToLongBits(v);
+    return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+  }
+
+  /** Encode a fixed-point decimal with <code>scale</code> digits after the
+   *  decimal point.
+   *  @throws ArithmeticException if <code>v</code> has more digits after the
+   *          decimal point than <code>scale</code> or doesn't fit in a long
+   *          once scaled */
+  public static long encodeDecimal(BigDecimal v, int scale) {
+    final BigInteger unscaled = v.setScale(scale).unscaledValue();
+    if (unscaled.bitLength() > 63) {
+      throw new ArithmeticException(v + " doesn't fit in a long with scale " + scale);
+    }
+    return encodeLong(unscaled.longValue());
+  }
+
+  /** Return the first 8 bytes of <code>bytes[off:off+len[</code> in
+   *  big-endian order, padded with zeros. Prefixes of byte arrays that are
+   *  compared lexicographically as unsigned bytes sort like the byte arrays,
+   *  but different byte arrays may have the same prefix. */
+  public static long bytesPrefix(byte[] bytes, int off, int len) {
+    long prefix = 0;
+    for (int i = 0; i < 8; ++i) {
+      prefix = (prefix << 8) | (i < len ? bytes[off + i] & 0xFF : 0);
+    }
+    return prefix;
+  }
+
+  /** Return the UTF-8 bytes of <code>s</code>, which are ordered like the
+   *  code points of <code>s</code>. Note that this is different from
+   *  {@link String#compareTo(String)} when strings contain supplementary
+   *  characters. Unpaired surrogates are encoded as <code>'?'</code>. */
+  public static byte[] utf8(CharSequence s) {
+    return s.toString().getBytes(UTF_8);
+  }
+
+  /** Return the prefix of the UTF-8 bytes of <code>s</code>, equivalent to
+   *  <code>bytesPrefix(utf8(s), 0, utf8(s).length)</code>, without
+   *  allocating memory. */
+  public static long utf8Prefix(CharSequence s) {
+    long prefix = 0;
+    int bytes = 0;
+    for (int i = 0, len = s.length(); i < len && bytes < 8; ++i) {
+      int c = s.charAt(i);
+      if (c < 0x80) {
+        prefix = (prefix << 8) | c;
+        bytes += 1;
+        continue;
+      }
+      final long encoded;
+      final int n;
+      if (c < 0x800) {
+        encoded = 0xC080 | ((c & 0x7C0) << 2) | (c & 0x3F);
+        n = 2;
+      } else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+        encoded = 0xE08080 | ((c & 0xF000) << 4) | ((c & 0xFC0) << 2) | (c & 0x3F);
+        n = 3;
+      } else if (Character.isHighSurrogate((char) c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+        c = Character.toCodePoint((char) c, s.charAt(++i));
+        encoded = 0xF0808080L | ((c & 0x1C0000) << 6) | ((c & 0x3F000) << 4) | ((c & 0xFC0) << 2) | (c & 0x3F);
+        n = 4;
+      } else {
+        encoded = '?';
+        n = 1;
+      }
+      // keep the bytes that fit
+      final int fit = Math.min(n, 8 - bytes);
+      prefix = (prefix << (fit << 3)) | (encoded >>> ((n - fit) << 3));
+      bytes += fit;
+    }
+    // pad with zeros, prefix is 0 if s is empty
+    return bytes == 8 ? prefix : prefix << ((8 - bytes) << 3);
+  }
+
+  /** Compare two encoded ints as unsigned integers. */
+  public static int compareUnsigned(int a, int b) {
+    return compareUnsigned(a & 0xFFFFFFFFL, b & 0xFFFFFFFFL);
+  }
+
+  /** Compare two encoded longs as unsigned integers. */
+  public static int compareUnsigned(long a, long b) {
+    a ^= Long.MIN_VALUE;
+    b ^= Long.MIN_VALUE;
+    return a < b ? -1 : a == b ? 0 : 1;
+  }
+
+  /** Write an encoded int in big-endian order. */
+  public static void writeInt(int key, byte[] dest, int off) {
+    for (int i = 3; i >= 0; --i) {
+      dest[off + i] = (byte) key;
+      key >>>= 8;
+    }
+  }
+
+  /** Write an encoded long in big-endian order. */
+  public static void writeLong(long key, byte[] dest, int off) {
+    for (int i = 7; i >= 0; --i) {
+      dest[off + i] = (byte) key;
+      key >>>= 8;
+    }
+  }
+
+}
@@ -0,0 +1,170 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Least-significant-digit radix sort for arrays of signed ints and longs.
+ * <p>Values are sorted 8 bits at a time, with one pass per digit that moves
+ * values between the array and a scratch array, whose length must be at
+ * least the length of the slice to sort. Histograms of all digits are
+ * computed at once in an initial read pass, and digits that are the same for
+ * all values are skipped, so that for example timestamps that are close to
+ * each other only need to be moved a few times.
+ * <p>This runs in O(n) regardless of the order of the input, and is stable.
+ * Other primitive types can be sorted by first encoding them with
+ * {@link KeyEncoder}.
+ */
+public final class LSDRadixSorter {
+
+  private static final int BITS = 8;
+  private static final int RADIX = 1 << BITS;
+  private static final int MASK = RADIX - 1;
+
+  private LSDRadixSorter() {}
+
+  static void checkRange(int length, int from, int to, int scratchLength) {
+    if (from < 0 || to < from || to > length) {
+      throw new IllegalArgumentException("Invalid slice [" + from + ":" + to + "[ for an array of length " + length);
+    }
+    if (scratchLength < to - from) {
+      throw new IllegalArgumentException("The scratch array must have a length of at least " + (to - from) + ", got " + scratchLength);
+    }
+  }
+
+  /** Sort <code>arr[from:to[</code>. */
+  public static void sort(int[] arr, int from, int to) {
+    // validate before allocating the scratch array
+    checkRange(arr.length, from, to, to - from);
+    sort(arr, from, to, new int[to - from], 0);
+  }
+
+  /** Sort <code>arr[from:to[</code> using <code>scratch</code> as a
+   *  temporary storage. */
+  public static void sort(int[] arr, int from, int to, int[] scratch) {
+    checkRange(arr.length, from, to, scratch.length);
+    sort(arr, from, to, scratch, 0);
+  }
+
+  static void sort(int[] arr, int from, int to, int[] scratch, int scratchOff) {
+    final int len = to - from;
+    if (len < Sorter.THRESHOLD) {
+      Sorter.insertionSort(arr, from, to);
+      return;
+    }
+    final int digits = Integer.SIZE / BITS;
+    final int[] histograms = new int[digits * RADIX];
+    for (int i = from; i < to; ++i) {
+      // flip the sign bit so that negative values sort first
+      final int v = arr[i] ^ Integer.MIN_VALUE;
+      for (int d = 0; d < digits; ++d) {
+        ++histograms[(d << BITS) | ((v >>> (d * BITS)) & MASK)];
+      }
+    }
+
+    int[] src = arr, dest = scratch;
+    int srcOff = from, destOff = scratchOff;
+    final int first = arr[from] ^ Integer.MIN_VALUE;
+    for (int d = 0; d < digits; ++d) {
+      final int shift = d * BITS;
+      final int h = d << BITS;
+      if (histograms[h | ((first >>> shift) & MASK)] == len) {
+        // all values have the same digit
+        continue;
+      }
+      // turn counts into offsets
+      for (int b = 0, offset = destOff; b < RADIX; ++b) {
+        final int count = histograms[h | b];
+        histograms[h | b] = offset;
+        offset += count;
+      }
+      for (int i = srcOff, end = srcOff + len; i < end; ++i) {
+        final int v = src[i];
+        dest[histograms[h | (((v ^ Integer.MIN_VALUE) >>> shift) & MASK)]++] = v;
+      }
+      final int[] tmp = src;
+      src = dest;
+      dest = tmp;
+      final int tmpOff = srcOff;
+      srcOff = destOff;
+      destOff = tmpOff;
+    }
+    if (src != arr) {
+      System.arraycopy(src, srcOff, arr, from, len);
+    }
+  }
+
+  /** Sort <code>arr[from:to[</code>. */
+  public static void sort(long[] arr, int from, int to) {
+    // validate before allocating the scratch array
+    checkRange(arr.length, from, to, to - from);
+    sort(arr, from, to, new long[to - from], 0);
+  }
+
+  /** Sort <code>arr[from:to[</code> using <code>scratch</code> as a
+   *  temporary storage. */
+  public static void sort(long[] arr, int from, int to, long[] scratch) {
+    checkRange(arr.length, from, to, scratch.length);
+    sort(arr, from, to, scratch, 0);
+  }
+
+  static void sort(long[] arr, int from, int to, long[] scratch, int scratchOff) {
+    final int len = to - from;
+    if (len < Sorter.THRESHOLD) {
+      Sorter.insertionSort(arr, from, to);
+      return;
+    }
+    final int digits = Long.SIZE / BITS;
+    final int[] histograms = new int[digits * RADIX];
+    for (int i = from; i < to; ++i) {
+      // flip the sign bit so that negative values sort first
+      final long v = arr[i] ^ Long.MIN_VALUE;
+      for (int d = 0; d < digits; ++d) {
+        ++histograms[(d << BITS) | (int) ((v >>> (d * BITS)) & MASK)];
+      }
+    }
+
+    long[] src = arr, dest = scratch;
+    int srcOff = from, destOff = scratchOff;
+    final long first = arr[from] ^ Long.MIN_VALUE;
+    for (int d = 0; d < digits; ++d) {
+      final int shift = d * BITS;
+      final int h = d << BITS;
+      if (histograms[h | (int) ((first >>> shift) & MASK)] == len) {
+        // all values have the same digit
+        continue;
+      }
+      // turn counts into offsets
+      for (int b = 0, offset = destOff; b < RADIX; ++b) {
+        final int count = histograms[h | b];
+        histograms[h | b] = offset;
+        offset += count;
+      }
+      for (int i = srcOff, end = srcOff + len; i < end; ++i) {
+        final long v = src[i];
+        dest[histograms[h | (int) (((v ^ Long.MIN_VALUE) >>> shift) & MASK)]++] = v;
+      }
+      final long[] tmp = src;
+      src = dest;
+      dest = tmp;
+      final int tmpOff = srcOff;
+      srcOff = destOff;
+      destOff = tmpOff;
+    }
+    if (src != arr) {
+      System.arraycopy(src, srcOff, arr, from, len);
+    }
+  }
+
+}
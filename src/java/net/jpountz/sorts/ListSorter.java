@@ -0,0 +1,149 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Sorters for {@link List}s that sort them in place through
+ * {@link List#get(int)} and {@link List#set(int, Object)}, unlike
+ * {@link java.util.Collections#sort(List, Comparator)} which copies the
+ * list to an array, sorts the array and writes it back.
+ * <p>Lists must implement {@link RandomAccess}, and should support
+ * {@link List#set(int, Object)}.
+ */
+public final class ListSorter {
+
+  // default maximum number of temporary slots of stable sorts
+  static final int DEFAULT_MAX_TEMP_SLOTS = 1 << 16;
+
+  private ListSorter() {}
+
+  static void checkRandomAccess(List<?> list) {
+    if (!(list instanceof RandomAccess)) {
+      throw new IllegalArgumentException("Only RandomAccess lists can be sorted in place, got " + list.getClass().getName());
+    }
+  }
+
+  /** Sort <code>list</code> with {@link #introSorter(List, Comparator)}. */
+  public static <T> void sort(List<T> list, Comparator<? super T> comparator) {
+    introSorter(list, comparator).sort(0, list.size());
+  }
+
+  /** Sort <code>list</code> with {@link #timSorter(List, Comparator, int)}
+   *  and up to <code>min(size/2, 65536)</code> temporary slots, so that
+   *  equal values keep their relative order. */
+  public static <T> void stableSort(List<T> list, Comparator<? super T> comparator) {
+    stableSort(list, comparator, Math.min(list.size() >>> 1, DEFAULT_MAX_TEMP_SLOTS));
+  }
+
+  /** Sort <code>list</code> with {@link #timSorter(List, Comparator, int)}
+   *  and up to <code>maxTempSlots</code> temporary slots, so that equal
+   *  values keep their relative order. */
+  public static <T> void stableSort(List<T> list, Comparator<? super T> comparator, int maxTempSlots) {
+    timSorter(list, comparator, maxTempSlots).sort(0, list.size());
+  }
+
+  /** Return an {@link IntroSorter} over <code>list</code>. */
+  public static <T> Sorter introSorter(final List<T> list, final Comparator<? super T> comparator) {
+    checkRandomAccess(list);
+    return new IntroSorter() {
+
+      private T pivot;
+
+      @Override
+      protected int compare(int i, int j) {
+        return comparator.compare(list.get(i), list.get(j));
+      }
+
+      @Override
+      protected void swap(int i, int j) {
+        list.set(i, list.set(j, list.get(i)));
+      }
+
+      @Override
+      protected void setPivot(int i) {
+        pivot = list.get(i);
+      }
+
+      @Override
+      protected int comparePivot(int j) {
+        return comparator.compare(pivot, list.get(j));
+      }
+
+    };
+  }
+
+  /** Return a {@link TimSorter} over <code>list</code> that uses at most
+   *  <code>maxTempSlots</code> slots of temporary storage, which is
+   *  allocated lazily and doesn't keep references to values between sorts. */
+  public static <T> TimSorter timSorter(final List<T> list, final Comparator<? super T> comparator, final int maxTempSlots) {
+    checkRandomAccess(list);
+    return new TimSorter(maxTempSlots) {
+
+      private Object[] tmp = new Object[0];
+
+      @Override
+      protected int compare(int i, int j) {
+        return comparator.compare(list.get(i), list.get(j));
+      }
+
+      @Override
+      protected void swap(int i, int j) {
+        list.set(i, list.set(j, list.get(i)));
+      }
+
+      @Override
+      protected void copy(int src, int dest) {
+        list.set(dest, list.get(src));
+      }
+
+      @Override
+      protected void saveAll(int i, int len) {
+        if (tmp.length < len) {
+          tmp = new Object[ObjectArraySorter.grow(tmp.length, len, maxTempSlots)];
+        }
+        for (int j = 0; j < len; ++j) {
+          tmp[j] = list.get(i + j);
+        }
+      }
+
+      @Override
+      protected void save(int i, int j) {
+        if (j >= tmp.length) {
+          tmp = Arrays.copyOf(tmp, ObjectArraySorter.grow(tmp.length, j + 1, maxTempSlots));
+        }
+        tmp[j] = list.get(i);
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      protected void restore(int i, int j) {
+        list.set(j, (T) tmp[i]);
+        tmp[i] = null; // every saved value is restored once
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      protected int compareSaved(int i, int j) {
+        return comparator.compare((T) tmp[i], list.get(j));
+      }
+
+    };
+  }
+
+}
@@ -0,0 +1,287 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link Sorter} implementation based on the most-significant-digit radix
+ * sort algorithm, for keys that are sequences of bytes, see
+ * {@link #byteAt(int, int)}. Slots are moved into their bucket in place, with
+ * swaps, and small buckets are sorted with {@link IntroSorter}.
+ * <p>{@link #sort(int, int, ExecutorService, int)} computes the histogram of
+ * the first byte that differs between keys in parallel, and then sorts
+ * buckets as independent tasks, except buckets that are larger than
+ * <code>1/parallelism</code> of the slice, which are sorted in parallel the
+ * same way on the next byte. This requires {@link #byteAt(int, int)} to
+ * be safe to call concurrently and {@link #swap(int, int)} to be safe to
+ * call concurrently on different slots.
+ */
+public abstract class MSDRadixSorter extends Sorter {
+
+  // after that many levels of recursion, fall back to introsort
+  static final int LEVEL_THRESHOLD = 8;
+  // buckets and end of keys (-1)
+  static final int HISTOGRAM_SIZE = 257;
+  // buckets below that length are sorted with introsort
+  static final int LENGTH_THRESHOLD = 100;
+
+  private final int maxLength;
+
+  /**
+   * Create a new {@link MSDRadixSorter}.
+   * @param maxLength the maximum length of keys, pass {@link Integer#MAX_VALUE} if unknown
+   */
+  protected MSDRadixSorter(int maxLength) {
+    this.maxLength = maxLength;
+  }
+
+  /** Return the <code>k</code>-th byte of the key in slot <code>i</code> as
+   *  an unsigned value, or <code>-1</code> if the key is shorter than
+   *  <code>k+1</code> bytes. <code>k</code> is always less than the maximum
+   *  length of keys. */
+  protected abstract int byteAt(int i, int k);
+
+  /** Compare keys lexicographically, byte by byte. */
+  @Override
+  protected final int compare(int i, int j) {
+    return compare(i, j, 0);
+  }
+
+  // compare keys, knowing that their first k bytes are equal
+  int compare(int i, int j, int k) {
+    for (; k < maxLength; ++k) {
+      final int b1 = byteAt(i, k);
+      final int b2 = byteAt(j, k);
+      if (b1 != b2) {
+        return b1 - b2;
+      } else if (b1 == -1) {
+        break;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public final void sort(int from, int to) {
+    checkRange(from, to);
+    sort(from, to, 0, new int[LEVEL_THRESHOLD][]);
+  }
+
+  /** Sort <code>[from:to[</code> with up to <code>parallelism</code> tasks
+   *  at a time on <code>executor</code>, which must not be the executor of
+   *  the calling thread if it has a bounded number of threads, since the
+   *  calling thread blocks until tasks complete. */
+  public final void sort(int from, int to, ExecutorService executor, int parallelism) {
+    checkRange(from, to);
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be >= 1, got " + parallelism);
+    }
+    sort(from, to, 0, executor, parallelism);
+  }
+
+  // parallel sort of keys whose first k bytes are equal
+  void sort(final int from, final int to, int k, ExecutorService executor, int parallelism) {
+    final int len = to - from;
+    if (parallelism == 1 || len < ParallelTasks.PARALLEL_THRESHOLD) {
+      sort(from, to, k, new int[LEVEL_THRESHOLD][]);
+      return;
+    }
+    final int chunkLen = (len - 1) / parallelism + 1;
+    final int chunks = (len - 1) / chunkLen + 1;
+    final int[][] chunkHistograms = new int[chunks][HISTOGRAM_SIZE];
+    final int[] histogram = new int[HISTOGRAM_SIZE];
+    final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+    // skip the common prefix of all keys
+    for (;; ++k) {
+      if (k >= maxLength) {
+        return;
+      }
+      tasks.clear();
+      for (int c = 0; c < chunks; ++c) {
+        final int[] chunkHistogram = chunkHistograms[c];
+        final int chunkFrom = from + c * chunkLen, chunkTo = Math.min(to, chunkFrom + chunkLen);
+        final int level = k;
+        tasks.add(new Callable<Void>() {
+          @Override
+          public Void call() {
+            Arrays.fill(chunkHistogram, 0);
+            for (int i = chunkFrom; i < chunkTo; ++i) {
+              ++chunkHistogram[byteAt(i, level) + 1];
+            }
+            return null;
+          }
+        });
+      }
+      ParallelTasks.invokeAll(executor, tasks);
+      Arrays.fill(histogram, 0);
+      for (int[] chunkHistogram : chunkHistograms) {
+        for (int b = 0; b < HISTOGRAM_SIZE; ++b) {
+          histogram[b] += chunkHistogram[b];
+        }
+      }
+      final int b = byteAt(from, k) + 1;
+      if (histogram[b] != len) {
+        break;
+      } else if (b == 0) {
+        // all keys are equal
+        return;
+      }
+    }
+
+    final int[] ends = reorder(from, k, histogram);
+    tasks.clear();
+    // bucket 0 contains keys that are all equal
+    for (int b = 1; b < HISTOGRAM_SIZE; ++b) {
+      final int bucketFrom = ends[b - 1], bucketTo = ends[b];
+      if (bucketTo - bucketFrom <= 1 || bucketTo - bucketFrom > chunkLen) {
+        continue;
+      }
+      final int level = k + 1;
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          sort(bucketFrom, bucketTo, level, new int[LEVEL_THRESHOLD][]);
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+    for (int b = 1; b < HISTOGRAM_SIZE; ++b) {
+      if (ends[b] - ends[b - 1] > chunkLen) {
+        sort(ends[b - 1], ends[b], k + 1, executor, parallelism);
+      }
+    }
+  }
+
+  void sort(int from, int to, int k, int[][] histograms) {
+    if (to - from <= LENGTH_THRESHOLD || k >= LEVEL_THRESHOLD) {
+      introSort(from, to, k);
+    } else {
+      radixSort(from, to, k, histograms);
+    }
+  }
+
+  void introSort(int from, int to, final int k) {
+    if (k >= maxLength || to - from <= 1) {
+      return;
+    }
+    new IntroSorter() {
+
+      private byte[] pivot = new byte[16];
+      private int pivotLength;
+
+      @Override
+      protected int compare(int i, int j) {
+        return MSDRadixSorter.this.compare(i, j, k);
+      }
+
+      @Override
+      protected void swap(int i, int j) {
+        MSDRadixSorter.this.swap(i, j);
+      }
+
+      @Override
+      protected void setPivot(int i) {
+        pivotLength = 0;
+        for (int o = k; o < maxLength; ++o) {
+          final int b = byteAt(i, o);
+          if (b == -1) {
+            break;
+          }
+          if (pivotLength == pivot.length) {
+            pivot = Arrays.copyOf(pivot, pivotLength << 1);
+          }
+          pivot[pivotLength++] = (byte) b;
+        }
+      }
+
+      @Override
+      protected int comparePivot(int j) {
+        for (int o = 0; o < pivotLength; ++o) {
+          final int b1 = pivot[o] & 0xFF;
+          final int b2 = byteAt(j, k + o);
+          if (b1 != b2) {
+            return b1 - b2;
+          }
+        }
+        if (k + pivotLength == maxLength) {
+          return 0;
+        }
+        return -1 - byteAt(j, k + pivotLength);
+      }
+
+    }.sort(from, to);
+  }
+
+  void radixSort(int from, int to, int k, int[][] histograms) {
+    int[] histogram = histograms[k];
+    if (histogram == null) {
+      histogram = histograms[k] = new int[HISTOGRAM_SIZE];
+    } else {
+      Arrays.fill(histogram, 0);
+    }
+    for (int i = from; i < to; ++i) {
+      ++histogram[byteAt(i, k) + 1];
+    }
+    final int b = byteAt(from, k) + 1;
+    if (histogram[b] == to - from) {
+      // all keys have the same byte
+      if (b != 0 && k + 1 < maxLength) {
+        sort(from, to, k + 1, histograms);
+      }
+      return;
+    }
+
+    final int[] ends = reorder(from, k, histogram);
+    // bucket 0 contains keys that are all equal
+    for (int i = 1; i < HISTOGRAM_SIZE; ++i) {
+      if (ends[i] - ends[i - 1] > 1) {
+        sort(ends[i - 1], ends[i], k + 1, histograms);
+      }
+    }
+  }
+
+  /** Move slots to their bucket, given the histogram of the
+   *  <code>k</code>-th byte of keys, and return the end offsets of buckets,
+   *  which are stored in the histogram. */
+  int[] reorder(int from, int k, int[] histogram) {
+    final int[] next = new int[HISTOGRAM_SIZE];
+    for (int b = 0, offset = from; b < HISTOGRAM_SIZE; ++b) {
+      next[b] = offset;
+      offset += histogram[b];
+      histogram[b] = offset;
+    }
+    // American flag sort: swap slots until every bucket contains its slots
+    for (int b = 0; b < HISTOGRAM_SIZE; ++b) {
+      final int end = histogram[b];
+      while (next[b] < end) {
+        final int v = byteAt(next[b], k) + 1;
+        if (v == b) {
+          ++next[b];
+        } else {
+          swap(next[b], next[v]++);
+        }
+      }
+    }
+    return histogram;
+  }
+
+}
@@ -20,13 +20,14 @@ package net.jpountz.sorts;
  * Small arrays are sorted with {@link InsertionSorter}.
  * <p><a name="maxTempSlots"/>The extra amount of memory to perform merges is
  * configurable. This allows small merges to be very fast while large merges
- * will be performed in-place (slightly slower). You can make sure that the
+ * will be split using rotations until they fit in the temporary storage
+ * (slightly slower). You can make sure that the
  * fast merge routine will always be used by having <code>maxTempSlots</code>
  * equal to the length of the slice of data to sort.
  */
 public abstract class MergeSorter extends Sorter {
 
-  private final int maxTempSlots;
+  final int maxTempSlots;
 
   /**
    * Create a new {@link MergeSorter}.
@@ -39,7 +40,12 @@ public abstract class MergeSorter extends Sorter {
   @Override
   public final void sort(int from, int to) {
     checkRange(from, to);
-    mergeSort(from, to);
+    startEvent("MergeSorter", from, to, maxTempSlots);
+    try {
+      mergeSort(from, to);
+    } finally {
+      endEvent();
+    }
   }
 
   void mergeSort(int from, int to) {
@@ -53,6 +59,7 @@ public abstract class MergeSorter extends Sorter {
       mergeInPlace(from, mid, to);
       return;
     }
+    recordTempSlots(to - from);
     final int mid = (from + to) >>> 1;
     final int q1 = (from + mid) >>> 1;
     final int q3 = (mid + to) >>> 1;
@@ -69,19 +76,79 @@ public abstract class MergeSorter extends Sorter {
       return;
     }
 
-    if (cq1) {
-      saveAll(from, mid, from);
+    if (!canCompareSavedToSlot()) {
+      // merge both halves through the temporary storage
+      if (cq1) {
+        saveAll(from, mid, from);
+      } else {
+        merge1(from, q1, mid, from);
+      }
+      if (cq3) {
+        saveAll(mid, to, from);
+      } else {
+        merge1(mid, q3, to, from);
+      }
+      merge2(from, mid, to, from);
+    } else if (cq3) {
+      // the second half is already sorted, merge it directly with the
+      // temporary storage
+      if (cq1) {
+        saveAll(from, mid, from);
+      } else {
+        merge1(from, q1, mid, from);
+      }
+      mergeLo(from, mid, to);
+    } else if (cq1) {
+      merge1(mid, q3, to, mid);
+      mergeHi(from, mid, to);
     } else {
       merge1(from, q1, mid, from);
-    }
-
-    if (cq3) {
-      saveAll(mid, to, from);
-    } else {
       merge1(mid, q3, to, from);
+      merge2(from, mid, to, from);
     }
+  }
+
+  /** Merge sorted slices <code>[from:mid[</code> and <code>[mid:to[</code>.
+   *  This trims values that are already at their final position with
+   *  galloping searches, and then merges through the temporary storage if
+   *  the merge fits in it, or only one side of the merge if
+   *  {@link #canCompareSavedToSlot()} is true, or splits the merge with
+   *  rotations otherwise. Ties are resolved in favor of <code>[from:mid[</code>. */
+  public final void merge(int from, int mid, int to) {
+    checkRange(from, mid, to);
+    mergeInPlace(from, mid, to);
+  }
 
-    merge2(from, mid, to, from);
+  @Override
+  void mergeInPlace(int from, int mid, int to) {
+    if (from == mid || mid == to || compare(mid - 1, mid) <= 0) {
+      return;
+    }
+    from = upper2(from, mid, mid);
+    to = lower2(mid, to, mid - 1);
+    if (canCompareSavedToSlot()) {
+      if (mid - from <= to - mid && mid - from <= maxTempSlots) {
+        recordTempSlots(mid - from);
+        saveAll(from, mid, from);
+        mergeLo(from, mid, to);
+        return;
+      } else if (to - mid <= maxTempSlots) {
+        recordTempSlots(to - mid);
+        saveAll(mid, to, mid);
+        mergeHi(from, mid, to);
+        return;
+      }
+    } else if (to - from <= maxTempSlots) {
+      recordTempSlots(to - from);
+      saveAll(from, to, from);
+      restoreMerged(0, mid - from, to - from, from);
+      return;
+    }
+    // the merge doesn't fit in the temporary storage, see Sorter.mergeInPlace
+    if (event != null) {
+      ++event.inPlaceMerges;
+    }
+    super.mergeInPlace(from, mid, to);
   }
 
   void saveAll(int from, int to, int base) {
@@ -91,21 +158,7 @@ public abstract class MergeSorter extends Sorter {
   }
 
   void merge1(int from, int mid, int to, int base) {
-    int dest = from - base, i = from, j = mid;
-    for ( ; i < mid && j < to; ++dest) {
-      if (compare(i, j) <= 0) {
-        save(i++, dest);
-      } else {
-        save(j++, dest);
-      }
-    }
-    for ( ; i < mid; ++i, ++dest) {
-      save(i, dest);
-    }
-    for ( ; j < to; ++j, ++dest) {
-      save(j, dest);
-    }
-    assert dest == to - base;
+    saveMerged(from, mid, to, from - base);
   }
 
   void merge2(int from, int mid, int to, int base) {
@@ -115,43 +168,61 @@ public abstract class MergeSorter extends Sorter {
       }
       return;
     }
-    final int iend = mid - base, jend = to - base;
-    int dest = from, i = from - base, j = mid - base;
-    for ( ; i < iend && j < jend; ++dest) {
-      if (compareSaved(i, j) <= 0) {
+    restoreMerged(from - base, mid - base, to - base, from);
+  }
+
+  // merge [from:mid[, which is in the temporary storage, with [mid:to[
+  void mergeLo(int from, int mid, int to) {
+    final int iend = mid - from;
+    int dest = from, i = 0, j = mid;
+    for ( ; i < iend && j < to; ++dest) {
+      if (compareSavedToSlot(i, j) <= 0) {
         restore(i++, dest);
       } else {
-        restore(j++, dest);
+        copy(j++, dest);
       }
     }
     for ( ; i < iend; ++i, ++dest) {
       restore(i, dest);
     }
-    for ( ; j < jend; ++j, ++dest) {
+    assert dest == j;
+  }
+
+  // merge [from:mid[ with [mid:to[, which is in the temporary storage
+  void mergeHi(int from, int mid, int to) {
+    int dest = to - 1, i = mid - 1, j = to - mid - 1;
+    for ( ; i >= from && j >= 0; --dest) {
+      if (compareSavedToSlot(j, i) >= 0) {
+        restore(j--, dest);
+      } else {
+        copy(i--, dest);
+      }
+    }
+    for ( ; j >= 0; --j, --dest) {
       restore(j, dest);
     }
-    assert dest == to;
+    assert dest == i;
   }
 
   @Override
   void doRotate(int lo, int mid, int hi) {
     final int len1 = mid - lo;
     final int len2 = hi - mid;
-    if (len1 == len2) {
-      while (mid < hi) {
-        swap(lo++, mid++);
-      }
-    } else if (len2 < len1 && len2 <= maxTempSlots) {
+    if (len1 == len2 || Math.min(len1, len2) > maxTempSlots) {
+      blockSwapRotate(lo, mid, hi, maxTempSlots);
+    } else if (len2 < len1) {
+      recordTempSlots(len2);
       for (int i = 0; i < len2; ++i) {
         save(mid + i, i);
       }
-      for (int i = lo + len1 - 1, j = hi - 1; i >= lo; --i, --j) {
+      for (int i = mid - 1, j = hi - 1; i >= lo; --i, --j) {
         copy(i, j);
       }
       for (int i = 0, j = lo; i < len2; ++i, ++j) {
         restore(i, j);
       }
-    } else if (len1 <= maxTempSlots) {
+    } else {
+      recordTempSlots(len1);
       for (int i = 0; i < len1; ++i) {
         save(lo + i, i);
       }
@@ -161,10 +232,54 @@ public abstract class MergeSorter extends Sorter {
       for (int i = 0, j = lo + len2; j < hi; ++i, ++j) {
         restore(i, j);
       }
-    } else {
-      reverse(lo, mid);
-      reverse(mid, hi);
-      reverse(lo, hi);
+    }
+  }
+
+  /** Merge slots <code>[from:mid[</code> and <code>[mid:to[</code> into the
+   *  temporary storage, starting at offset <code>dest</code>. Ties must be
+   *  resolved in favor of <code>[from:mid[</code>.
+   *  <p>The default implementation relies on {@link #compare(int, int)} and
+   *  {@link #save(int, int)}. Implementations backed by primitive arrays can
+   *  override it to use a faster routine such as
+   *  {@link Sorter#merge(int[], int, int, int, int[], int)}. */
+  protected void saveMerged(int from, int mid, int to, int dest) {
+    int i = from, j = mid;
+    for ( ; i < mid && j < to; ++dest) {
+      if (compare(i, j) <= 0) {
+        save(i++, dest);
+      } else {
+        save(j++, dest);
+      }
+    }
+    for ( ; i < mid; ++i, ++dest) {
+      save(i, dest);
+    }
+    for ( ; j < to; ++j, ++dest) {
+      save(j, dest);
+    }
+  }
+
+  /** Merge offsets <code>[from:mid[</code> and <code>[mid:to[</code> of the
+   *  temporary storage into slots, starting at slot <code>dest</code>. Ties
+   *  must be resolved in favor of <code>[from:mid[</code>.
+   *  <p>The default implementation relies on {@link #compareSaved(int, int)}
+   *  and {@link #restore(int, int)}. Implementations backed by primitive
+   *  arrays can override it to use a faster routine such as
+   *  {@link Sorter#merge(int[], int, int, int, int[], int)}. */
+  protected void restoreMerged(int from, int mid, int to, int dest) {
+    int i = from, j = mid;
+    for ( ; i < mid && j < to; ++dest) {
+      if (compareSaved(i, j) <= 0) {
+        restore(i++, dest);
+      } else {
+        restore(j++, dest);
+      }
+    }
+    for ( ; i < mid; ++i, ++dest) {
+      restore(i, dest);
+    }
+    for ( ; j < to; ++j, ++dest) {
+      restore(j, dest);
     }
   }
 
@@ -181,4 +296,22 @@ public abstract class MergeSorter extends Sorter {
    *  storage similarly to {@link #compare(int, int)}. */
   protected abstract int compareSaved(int i, int j);
 
+  /** Return whether this sorter implements
+   *  {@link #compareSavedToSlot(int, int)}, in which case merges only save
+   *  one of their sides to the temporary storage and merge it directly with
+   *  the other side. By default, merges save both sides and return
+   *  <code>false</code>. */
+  protected boolean canCompareSavedToSlot() {
+    return false;
+  }
+
+  /** Compare the element at offset <code>i</code> in the temporary storage
+   *  with the element in slot <code>j</code> similarly to
+   *  {@link #compare(int, int)}. This is only called if
+   *  {@link #canCompareSavedToSlot()} returns <code>true</code>, the default
+   *  implementation throws an {@link UnsupportedOperationException}. */
+  protected int compareSavedToSlot(int i, int j) {
+    throw new UnsupportedOperationException();
+  }
+
 }
@@ -0,0 +1,400 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sorters for arrays of objects, ordered by a {@link Comparator} or by a
+ * primitive key.
+ * <p>Keys are extracted once per value into a column of longs before
+ * sorting, and values are then ordered by comparing their keys, which is
+ * cheaper than calling a {@link Comparator} that extracts keys on every
+ * comparison.
+ * <p>Sorters that need temporary storage allocate it lazily and grow it on
+ * demand, up to their maximum number of temporary slots, so that sorting
+ * data that is almost sorted needs little memory.
+ */
+public final class ObjectArraySorter {
+
+  private ObjectArraySorter() {}
+
+  /** Extracts a key of type int from a value. */
+  public interface IntKey<T> {
+    /** Return the key of <code>value</code>. */
+    int key(T value);
+  }
+
+  /** Extracts a key of type long from a value. */
+  public interface LongKey<T> {
+    /** Return the key of <code>value</code>. */
+    long key(T value);
+  }
+
+  /** Extracts a key of type double from a value. Keys are ordered like
+   *  {@link Double#compare(double, double)} does. */
+  public interface DoubleKey<T> {
+    /** Return the key of <code>value</code>. */
+    double key(T value);
+  }
+
+  static void checkRange(int length, int from, int to) {
+    if (from < 0 || to < from || to > length) {
+      throw new IllegalArgumentException("Invalid slice [" + from + ":" + to + "[ for an array of length " + length);
+    }
+  }
+
+  static int grow(int length, int minLength, int maxLength) {
+    return Math.max(minLength, Math.min(maxLength, length << 1));
+  }
+
+  /** Sort <code>arr[from:to[</code> with {@link #introSorter(Object[], Comparator)}. */
+  public static <T> void sort(T[] arr, int from, int to, Comparator<? super T> comparator) {
+    checkRange(arr.length, from, to);
+    introSorter(arr, comparator).sort(from, to);
+  }
+
+  /** Sort <code>arr[from:to[</code> with
+   *  {@link #timSorter(Object[], Comparator, int)} and up to
+   *  <code>(to-from)/2</code> temporary slots, so that equal values keep
+   *  their relative order. */
+  public static <T> void stableSort(T[] arr, int from, int to, Comparator<? super T> comparator) {
+    checkRange(arr.length, from, to);
+    timSorter(arr, comparator, (to - from) >>> 1).sort(from, to);
+  }
+
+  /** Return an {@link IntroSorter} over <code>arr</code>. */
+  public static <T> Sorter introSorter(final T[] arr, final Comparator<? super T> comparator) {
+    return new IntroSorter() {
+
+      private T pivot;
+
+      @Override
+      protected int compare(int i, int j) {
+        return comparator.compare(arr[i], arr[j]);
+      }
+
+      @Override
+      protected void swap(int i, int j) {
+        swap(arr, i, j);
+      }
+
+      @Override
+      protected void setPivot(int i) {
+        pivot = arr[i];
+      }
+
+      @Override
+      protected int comparePivot(int j) {
+        return comparator.compare(pivot, arr[j]);
+      }
+
+    };
+  }
+
+  /** Return a {@link TimSorter} over <code>arr</code> that uses at most
+   *  <code>maxTempSlots</code> slots of temporary storage, which is
+   *  allocated lazily and doesn't keep references to values between sorts. */
+  public static <T> TimSorter timSorter(T[] arr, Comparator<? super T> comparator, int maxTempSlots) {
+    return new ObjectTimSorter<T>(arr, comparator, maxTempSlots);
+  }
+
+  /** Return a {@link MergeSorter} over <code>arr</code> that uses at most
+   *  <code>maxTempSlots</code> slots of temporary storage, which is
+   *  allocated lazily and doesn't keep references to values between sorts. */
+  public static <T> Sorter mergeSorter(T[] arr, Comparator<? super T> comparator, int maxTempSlots) {
+    return new ObjectMergeSorter<T>(arr, comparator, maxTempSlots);
+  }
+
+  /** Sort <code>arr[from:to[</code> by the keys that <code>key</code>
+   *  extracts, with {@link TimSorter} if <code>stable</code> is true and
+   *  {@link IntroSorter} otherwise. */
+  public static <T> void sortByIntKey(T[] arr, int from, int to, IntKey<? super T> key, boolean stable) {
+    checkRange(arr.length, from, to);
+    final long[] keys = new long[to - from];
+    for (int i = from; i < to; ++i) {
+      keys[i - from] = key.key(arr[i]);
+    }
+    sortByKeys(arr, from, to, keys, stable);
+  }
+
+  /** Sort <code>arr[from:to[</code> by the keys that <code>key</code>
+   *  extracts, with {@link TimSorter} if <code>stable</code> is true and
+   *  {@link IntroSorter} otherwise. */
+  public static <T> void sortByLongKey(T[] arr, int from, int to, LongKey<? super T> key, boolean stable) {
+    checkRange(arr.length, from, to);
+    final long[] keys = new long[to - from];
+    for (int i = from; i < to; ++i) {
+      keys[i - from] = key.key(arr[i]);
+    }
+    sortByKeys(arr, from, to, keys, stable);
+  }
+
+  /** Sort <code>arr[from:to[</code> by the keys that <code>key</code>
+   *  extracts, with {@link TimSorter} if <code>stable</code> is true and
+   *  {@link IntroSorter} otherwise. */
+  public static <T> void sortByDoubleKey(T[] arr, int from, int to, DoubleKey<? super T> key, boolean stable) {
+    checkRange(arr.length, from, to);
+    final long[] keys = new long[to - from];
+    for (int i = from; i < to; ++i) {
+      // comparable as a signed long
+      keys[i - from] = KeyEncoder.encodeDouble(key.key(arr[i])) ^ Long.MIN_VALUE;
+    }
+    sortByKeys(arr, from, to, keys, stable);
+  }
+
+  /** Sort <code>arr[from:to[</code> and <code>keys</code> together, where
+   *  <code>keys[i-from]</code> is the key of <code>arr[i]</code>. */
+  static <T> void sortByKeys(T[] arr, int from, int to, long[] keys, boolean stable) {
+    final Sorter sorter = stable
+        ? new KeyTimSorter<T>(arr, keys, from, (to - from) >>> 1)
+        : new KeyIntroSorter<T>(arr, keys, from);
+    sorter.sort(from, to);
+  }
+
+  static final class ObjectTimSorter<T> extends TimSorter {
+
+    private final T[] arr;
+    private final Comparator<? super T> comparator;
+    Object[] tmp;
+
+    ObjectTimSorter(T[] arr, Comparator<? super T> comparator, int maxTempSlots) {
+      super(maxTempSlots);
+      this.arr = arr;
+      this.comparator = comparator;
+      tmp = new Object[0];
+    }
+
+    @Override
+    protected int compare(int i, int j) {
+      return comparator.compare(arr[i], arr[j]);
+    }
+
+    @Override
+    protected void swap(int i, int j) {
+      swap(arr, i, j);
+    }
+
+    @Override
+    protected void copy(int src, int dest) {
+      arr[dest] = arr[src];
+    }
+
+    @Override
+    protected void saveAll(int i, int len) {
+      if (tmp.length < len) {
+        tmp = new Object[grow(tmp.length, len, maxTempSlots)];
+      }
+      System.arraycopy(arr, i, tmp, 0, len);
+    }
+
+    @Override
+    protected void save(int i, int j) {
+      if (j >= tmp.length) {
+        tmp = Arrays.copyOf(tmp, grow(tmp.length, j + 1, maxTempSlots));
+      }
+      tmp[j] = arr[i];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void restore(int i, int j) {
+      arr[j] = (T) tmp[i];
+      tmp[i] = null; // every saved value is restored once
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected int compareSaved(int i, int j) {
+      return comparator.compare((T) tmp[i], arr[j]);
+    }
+
+  }
+
+  static final class ObjectMergeSorter<T> extends MergeSorter {
+
+    private final T[] arr;
+    private final Comparator<? super T> comparator;
+    Object[] tmp;
+
+    ObjectMergeSorter(T[] arr, Comparator<? super T> comparator, int maxTempSlots) {
+      super(maxTempSlots);
+      this.arr = arr;
+      this.comparator = comparator;
+      tmp = new Object[0];
+    }
+
+    @Override
+    protected int compare(int i, int j) {
+      return comparator.compare(arr[i], arr[j]);
+    }
+
+    @Override
+    protected void swap(int i, int j) {
+      swap(arr, i, j);
+    }
+
+    @Override
+    protected void copy(int src, int dest) {
+      arr[dest] = arr[src];
+    }
+
+    @Override
+    protected void save(int i, int j) {
+      if (j >= tmp.length) {
+        final Object[] newTmp = new Object[grow(tmp.length, j + 1, maxTempSlots)];
+        System.arraycopy(tmp, 0, newTmp, 0, tmp.length);
+        tmp = newTmp;
+      }
+      tmp[j] = arr[i];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void restore(int i, int j) {
+      arr[j] = (T) tmp[i];
+      tmp[i] = null; // every saved value is restored once
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected int compareSaved(int i, int j) {
+      return comparator.compare((T) tmp[i], (T) tmp[j]);
+    }
+
+    @Override
+    protected boolean canCompareSavedToSlot() {
+      return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected int compareSavedToSlot(int i, int j) {
+      return comparator.compare((T) tmp[i], arr[j]);
+    }
+
+  }
+
+  private static final class KeyIntroSorter<T> extends IntroSorter {
+
+    private final T[] arr;
+    private final long[] keys;
+    private final int base;
+    private long pivot;
+
+    KeyIntroSorter(T[] arr, long[] keys, int base) {
+      this.arr = arr;
+      this.keys = keys;
+      this.base = base;
+    }
+
+    @Override
+    protected int compare(int i, int j) {
+      final long k1 = keys[i - base], k2 = keys[j - base];
+      return k1 < k2 ? -1 : k1 == k2 ? 0 : 1;
+    }
+
+    @Override
+    protected void swap(int i, int j) {
+      swap(arr, i, j);
+      swap(keys, i - base, j - base);
+    }
+
+    @Override
+    protected void setPivot(int i) {
+      pivot = keys[i - base];
+    }
+
+    @Override
+    protected int comparePivot(int j) {
+      final long k = keys[j - base];
+      return pivot < k ? -1 : pivot == k ? 0 : 1;
+    }
+
+  }
+
+  private static final class KeyTimSorter<T> extends TimSorter {
+
+    private final T[] arr;
+    private final long[] keys;
+    private final int base;
+    private Object[] savedValues;
+    private long[] savedKeys;
+
+    KeyTimSorter(T[] arr, long[] keys, int base, int maxTempSlots) {
+      super(maxTempSlots);
+      this.arr = arr;
+      this.keys = keys;
+      this.base = base;
+      savedValues = new Object[0];
+      savedKeys = new long[0];
+    }
+
+    @Override
+    protected int compare(int i, int j) {
+      final long k1 = keys[i - base], k2 = keys[j - base];
+      return k1 < k2 ? -1 : k1 == k2 ? 0 : 1;
+    }
+
+    @Override
+    protected void swap(int i, int j) {
+      swap(arr, i, j);
+      swap(keys, i - base, j - base);
+    }
+
+    @Override
+    protected void copy(int src, int dest) {
+      arr[dest] = arr[src];
+      keys[dest - base] = keys[src - base];
+    }
+
+    @Override
+    protected void saveAll(int i, int len) {
+      if (savedKeys.length < len) {
+        final int newLength = grow(savedKeys.length, len, maxTempSlots);
+        savedValues = new Object[newLength];
+        savedKeys = new long[newLength];
+      }
+      System.arraycopy(arr, i, savedValues, 0, len);
+      System.arraycopy(keys, i - base, savedKeys, 0, len);
+    }
+
+    @Override
+    protected void save(int i, int j) {
+      if (j >= savedKeys.length) {
+        final int newLength = grow(savedKeys.length, j + 1, maxTempSlots);
+        savedValues = Arrays.copyOf(savedValues, newLength);
+        savedKeys = Arrays.copyOf(savedKeys, newLength);
+      }
+      savedValues[j] = arr[i];
+      savedKeys[j] = keys[i - base];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void restore(int i, int j) {
+      arr[j] = (T) savedValues[i];
+      keys[j - base] = savedKeys[i];
+    }
+
+    @Override
+    protected int compareSaved(int i, int j) {
+      final long k1 = savedKeys[i], k2 = keys[j - base];
+      return k1 < k2 ? -1 : k1 == k2 ? 0 : 1;
+    }
+
+  }
+
+}
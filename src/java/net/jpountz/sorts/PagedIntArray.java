@@ -0,0 +1,187 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * An array of ints that is split into pages, so that it can have more than
+ * {@link Integer#MAX_VALUE} entries and doesn't need a single contiguous
+ * allocation. Slices of this array can be sorted with {@link BigSorter}s.
+ */
+public final class PagedIntArray {
+
+  static final int DEFAULT_PAGE_SHIFT = 21; // 8MB pages
+
+  private final long size;
+  private final int pageShift;
+  private final int pageMask;
+  private final int[][] pages;
+
+  /** Create a new array of <code>size</code> ints, all zero. */
+  public PagedIntArray(long size) {
+    this(size, DEFAULT_PAGE_SHIFT);
+  }
+
+  PagedIntArray(long size, int pageShift) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size must be >= 0, got " + size);
+    }
+    final long numPages = size == 0 ? 0 : ((size - 1) >>> pageShift) + 1;
+    if (numPages > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("size is too large: " + size);
+    }
+    this.size = size;
+    this.pageShift = pageShift;
+    this.pageMask = (1 << pageShift) - 1;
+    pages = new int[(int) numPages][];
+    for (int i = 0; i < pages.length; ++i) {
+      final long pageStart = (long) i << pageShift;
+      pages[i] = new int[(int) Math.min(1 << pageShift, size - pageStart)];
+    }
+  }
+
+  /** Return the number of entries of this array. */
+  public long size() {
+    return size;
+  }
+
+  /** Return the entry at index <code>i</code>. */
+  public int get(long i) {
+    return pages[(int) (i >>> pageShift)][(int) i & pageMask];
+  }
+
+  /** Set the entry at index <code>i</code>. */
+  public void set(long i, int value) {
+    pages[(int) (i >>> pageShift)][(int) i & pageMask] = value;
+  }
+
+  private void checkRange(long from, long to) {
+    if (from < 0 || to < from || to > size) {
+      throw new IllegalArgumentException("Invalid slice [" + from + ":" + to + "[ for an array of size " + size);
+    }
+  }
+
+  /** Sort <code>[from:to[</code> with {@link #introSorter()}. */
+  public void sort(long from, long to) {
+    checkRange(from, to);
+    introSorter().sort(from, to);
+  }
+
+  /** Return a {@link BigIntroSorter} over this array. */
+  public BigSorter introSorter() {
+    return new BigIntroSorter() {
+
+      private int pivot;
+
+      @Override
+      protected int compare(long i, long j) {
+        final int v1 = get(i), v2 = get(j);
+        return v1 < v2 ? -1 : v1 == v2 ? 0 : 1;
+      }
+
+      @Override
+      protected void swap(long i, long j) {
+        PagedIntArray.this.swap(i, j);
+      }
+
+      @Override
+      protected void setPivot(long i) {
+        pivot = get(i);
+      }
+
+      @Override
+      protected int comparePivot(long j) {
+        final int v = get(j);
+        return pivot < v ? -1 : pivot == v ? 0 : 1;
+      }
+
+    };
+  }
+
+  /** Return a {@link BigTimSorter} over this array that uses at most
+   *  <code>maxTempSlots</code> ints of temporary storage, which is allocated
+   *  lazily. */
+  public BigSorter timSorter(final int maxTempSlots) {
+    return new BigTimSorter(maxTempSlots) {
+
+      private int[] tmp = new int[0];
+
+      @Override
+      protected int compare(long i, long j) {
+        final int v1 = get(i), v2 = get(j);
+        return v1 < v2 ? -1 : v1 == v2 ? 0 : 1;
+      }
+
+      @Override
+      protected void swap(long i, long j) {
+        PagedIntArray.this.swap(i, j);
+      }
+
+      @Override
+      protected void copy(long src, long dest) {
+        set(dest, get(src));
+      }
+
+      @Override
+      protected void saveAll(long i, int len) {
+        if (tmp.length < len) {
+          tmp = new int[Math.max(len, Math.min(maxTempSlots, tmp.length << 1))];
+        }
+        for (int j = 0; j < len; ++j) {
+          tmp[j] = get(i + j);
+        }
+      }
+
+      @Override
+      protected void restore(int i, long j) {
+        set(j, tmp[i]);
+      }
+
+      @Override
+      protected int compareSaved(int i, long j) {
+        final int v1 = tmp[i], v2 = get(j);
+        return v1 < v2 ? -1 : v1 == v2 ? 0 : 1;
+      }
+
+    };
+  }
+
+  /** Return a {@link BigHeapSorter} over this array. */
+  public BigSorter heapSorter() {
+    return new BigHeapSorter() {
+
+      @Override
+      protected int compare(long i, long j) {
+        final int v1 = get(i), v2 = get(j);
+        return v1 < v2 ? -1 : v1 == v2 ? 0 : 1;
+      }
+
+      @Override
+      protected void swap(long i, long j) {
+        PagedIntArray.this.swap(i, j);
+      }
+
+    };
+  }
+
+  void swap(long i, long j) {
+    final int[] page1 = pages[(int) (i >>> pageShift)];
+    final int[] page2 = pages[(int) (j >>> pageShift)];
+    final int i1 = (int) i & pageMask, i2 = (int) j & pageMask;
+    final int tmp = page1[i1];
+    page1[i1] = page2[i2];
+    page2[i2] = tmp;
+  }
+
+}
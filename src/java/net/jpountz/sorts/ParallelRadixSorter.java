@@ -0,0 +1,318 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Multi-threaded radix sort for arrays of signed ints and longs.
+ * <p>The slice is split into <code>parallelism</code> chunks. Threads first
+ * compute the histograms of their chunk for the most significant digit that
+ * is not the same for all values, and then scatter their chunk into buckets
+ * of a scratch array in parallel. Buckets that are larger than a chunk are
+ * then distributed again on the next digit the same way, and other buckets
+ * are sorted as independent tasks with {@link LSDRadixSorter}, so that
+ * skewed inputs keep all threads busy. Small slices are directly sorted with
+ * {@link LSDRadixSorter} in the current thread.
+ * <p>Tasks run on the provided {@link ExecutorService}, which must not be
+ * the executor of the calling thread if it has a bounded number of
+ * threads, since the calling thread blocks until tasks complete.
+ */
+public final class ParallelRadixSorter {
+
+  private static final int BITS = 8;
+  private static final int RADIX = 1 << BITS;
+  private static final int MASK = RADIX - 1;
+
+  private ParallelRadixSorter() {}
+
+  /** Sort <code>arr[from:to[</code> using <code>scratch</code> as a
+   *  temporary storage and up to <code>parallelism</code> tasks at a time
+   *  on <code>executor</code>. */
+  public static void sort(int[] arr, int from, int to, int[] scratch, ExecutorService executor, int parallelism) {
+    LSDRadixSorter.checkRange(arr.length, from, to, scratch.length);
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be >= 1, got " + parallelism);
+    }
+    sort(arr, from, to, scratch, 0, executor, parallelism);
+  }
+
+  // sort arr[from:to[ using scratch[scratchFrom:scratchFrom+to-from[
+  private static void sort(final int[] arr, final int from, int to, final int[] scratch, final int scratchFrom, ExecutorService executor, int parallelism) {
+    final int len = to - from;
+    if (parallelism == 1 || len < ParallelTasks.PARALLEL_THRESHOLD) {
+      LSDRadixSorter.sort(arr, from, to, scratch, scratchFrom);
+      return;
+    }
+    final int chunkLen = (len - 1) / parallelism + 1;
+    final int chunks = (len - 1) / chunkLen + 1;
+    final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+    // find the most significant bit that is not the same for all values
+    final int first = arr[from];
+    final int[] diffs = new int[chunks];
+    for (int c = 0; c < chunks; ++c) {
+      final int chunk = c;
+      final int chunkFrom = from + c * chunkLen, chunkTo = Math.min(to, chunkFrom + chunkLen);
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          int diff = 0;
+          for (int i = chunkFrom; i < chunkTo; ++i) {
+            diff |= arr[i] ^ first;
+          }
+          diffs[chunk] = diff;
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+    int diff = 0;
+    for (int d : diffs) {
+      diff |= d;
+    }
+    if (diff == 0) {
+      return;
+    }
+    final int shift = Math.max(0, Integer.SIZE - Integer.numberOfLeadingZeros(diff) - BITS);
+
+    // per-chunk histograms
+    final int[][] histograms = new int[chunks][RADIX];
+    tasks.clear();
+    for (int c = 0; c < chunks; ++c) {
+      final int[] histogram = histograms[c];
+      final int chunkFrom = from + c * chunkLen, chunkTo = Math.min(to, chunkFrom + chunkLen);
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          for (int i = chunkFrom; i < chunkTo; ++i) {
+            ++histogram[((arr[i] ^ Integer.MIN_VALUE) >>> shift) & MASK];
+          }
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+
+    // turn counts into offsets, chunks of the same bucket are contiguous so
+    // that the scatter is stable
+    final int[] bucketEnds = new int[RADIX];
+    for (int b = 0, offset = scratchFrom; b < RADIX; ++b) {
+      for (int c = 0; c < chunks; ++c) {
+        final int count = histograms[c][b];
+        histograms[c][b] = offset;
+        offset += count;
+      }
+      bucketEnds[b] = offset;
+    }
+
+    // scatter chunks into the scratch array
+    tasks.clear();
+    for (int c = 0; c < chunks; ++c) {
+      final int[] offsets = histograms[c];
+      final int chunkFrom = from + c * chunkLen, chunkTo = Math.min(to, chunkFrom + chunkLen);
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          for (int i = chunkFrom; i < chunkTo; ++i) {
+            final int v = arr[i];
+            scratch[offsets[((v ^ Integer.MIN_VALUE) >>> shift) & MASK]++] = v;
+          }
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+
+    // copy chunks back
+    tasks.clear();
+    for (int c = 0; c < chunks; ++c) {
+      final int chunkFrom = from + c * chunkLen, chunkTo = Math.min(to, chunkFrom + chunkLen);
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          System.arraycopy(scratch, scratchFrom + chunkFrom - from, arr, chunkFrom, chunkTo - chunkFrom);
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+
+    // sort buckets as independent tasks, except large ones which are
+    // distributed again in parallel on the next digit
+    tasks.clear();
+    for (int b = 0; b < RADIX; ++b) {
+      final int bucketFrom = b == 0 ? scratchFrom : bucketEnds[b - 1], bucketTo = bucketEnds[b];
+      if (bucketTo - bucketFrom <= 1 || bucketTo - bucketFrom > chunkLen) {
+        continue;
+      }
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          LSDRadixSorter.sort(arr, from + bucketFrom - scratchFrom, from + bucketTo - scratchFrom, scratch, bucketFrom);
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+    for (int b = 0; b < RADIX; ++b) {
+      final int bucketFrom = b == 0 ? scratchFrom : bucketEnds[b - 1], bucketTo = bucketEnds[b];
+      if (bucketTo - bucketFrom > chunkLen) {
+        sort(arr, from + bucketFrom - scratchFrom, from + bucketTo - scratchFrom, scratch, bucketFrom, executor, parallelism);
+      }
+    }
+  }
+
+  /** Sort <code>arr[from:to[</code> using <code>scratch</code> as a
+   *  temporary storage and up to <code>parallelism</code> tasks at a time
+   *  on <code>executor</code>. */
+  public static void sort(long[] arr, int from, int to, long[] scratch, ExecutorService executor, int parallelism) {
+    LSDRadixSorter.checkRange(arr.length, from, to, scratch.length);
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be >= 1, got " + parallelism);
+    }
+    sort(arr, from, to, scratch, 0, executor, parallelism);
+  }
+
+  // sort arr[from:to[ using scratch[scratchFrom:scratchFrom+to-from[
+  private static void sort(final long[] arr, final int from, int to, final long[] scratch, final int scratchFrom, ExecutorService executor, int parallelism) {
+    final int len = to - from;
+    if (parallelism == 1 || len < ParallelTasks.PARALLEL_THRESHOLD) {
+      LSDRadixSorter.sort(arr, from, to, scratch, scratchFrom);
+      return;
+    }
+    final int chunkLen = (len - 1) / parallelism + 1;
+    final int chunks = (len - 1) / chunkLen + 1;
+    final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+    // find the most significant bit that is not the same for all values
+    final long first = arr[from];
+    final long[] diffs = new long[chunks];
+    for (int c = 0; c < chunks; ++c) {
+      final int chunk = c;
+      final int chunkFrom = from + c * chunkLen, chunkTo = Math.min(to, chunkFrom + chunkLen);
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          long diff = 0;
+          for (int i = chunkFrom; i < chunkTo; ++i) {
+            diff |= arr[i] ^ first;
+          }
+          diffs[chunk] = diff;
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+    long diff = 0;
+    for (long d : diffs) {
+      diff |= d;
+    }
+    if (diff == 0) {
+      return;
+    }
+    final int shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(diff) - BITS);
+
+    // per-chunk histograms
+    final int[][] histograms = new int[chunks][RADIX];
+    tasks.clear();
+    for (int c = 0; c < chunks; ++c) {
+      final int[] histogram = histograms[c];
+      final int chunkFrom = from + c * chunkLen, chunkTo = Math.min(to, chunkFrom + chunkLen);
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          for (int i = chunkFrom; i < chunkTo; ++i) {
+            ++histogram[(int) ((arr[i] ^ Long.MIN_VALUE) >>> shift) & MASK];
+          }
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+
+    // turn counts into offsets, chunks of the same bucket are contiguous so
+    // that the scatter is stable
+    final int[] bucketEnds = new int[RADIX];
+    for (int b = 0, offset = scratchFrom; b < RADIX; ++b) {
+      for (int c = 0; c < chunks; ++c) {
+        final int count = histograms[c][b];
+        histograms[c][b] = offset;
+        offset += count;
+      }
+      bucketEnds[b] = offset;
+    }
+
+    // scatter chunks into the scratch array
+    tasks.clear();
+    for (int c = 0; c < chunks; ++c) {
+      final int[] offsets = histograms[c];
+      final int chunkFrom = from + c * chunkLen, chunkTo = Math.min(to, chunkFrom + chunkLen);
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          for (int i = chunkFrom; i < chunkTo; ++i) {
+            final long v = arr[i];
+            scratch[offsets[(int) ((v ^ Long.MIN_VALUE) >>> shift) & MASK]++] = v;
+          }
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+
+    // copy chunks back
+    tasks.clear();
+    for (int c = 0; c < chunks; ++c) {
+      final int chunkFrom = from + c * chunkLen, chunkTo = Math.min(to, chunkFrom + chunkLen);
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          System.arraycopy(scratch, scratchFrom + chunkFrom - from, arr, chunkFrom, chunkTo - chunkFrom);
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+
+    // sort buckets as independent tasks, except large ones which are
+    // distributed again in parallel on the next digit
+    tasks.clear();
+    for (int b = 0; b < RADIX; ++b) {
+      final int bucketFrom = b == 0 ? scratchFrom : bucketEnds[b - 1], bucketTo = bucketEnds[b];
+      if (bucketTo - bucketFrom <= 1 || bucketTo - bucketFrom > chunkLen) {
+        continue;
+      }
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          LSDRadixSorter.sort(arr, from + bucketFrom - scratchFrom, from + bucketTo - scratchFrom, scratch, bucketFrom);
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+    for (int b = 0; b < RADIX; ++b) {
+      final int bucketFrom = b == 0 ? scratchFrom : bucketEnds[b - 1], bucketTo = bucketEnds[b];
+      if (bucketTo - bucketFrom > chunkLen) {
+        sort(arr, from + bucketFrom - scratchFrom, from + bucketTo - scratchFrom, scratch, bucketFrom, executor, parallelism);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,94 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Applies a permutation to slots in place, for example the ids that an
+ * {@link IndirectSorter} returns. Slots, which may span several columns,
+ * are moved by following the cycles of the permutation so that every value
+ * is moved exactly once and only one value is stored in the temporary
+ * storage at any time.
+ * <p>Visited slots are tracked with the sign bit of the ids, which are
+ * restored before {@link #permute(int[], int)} returns, so no extra memory
+ * is needed.
+ */
+public abstract class Permuter {
+
+  /** Create a new {@link Permuter}. */
+  public Permuter() {}
+
+  /** Move values so that slot <code>from+i</code> receives the value that
+   *  was in slot <code>ids[i]</code>, for every <code>i</code> in
+   *  <code>[0:ids.length[</code>. <code>ids</code> must be a permutation of
+   *  <code>[from:from+ids.length[</code>. */
+  public final void permute(int[] ids, int from) {
+    if (from < 0) {
+      throw new IllegalArgumentException("from must be >= 0");
+    }
+    final int len = ids.length;
+    if (from + len < from) {
+      throw new IllegalArgumentException("from + ids.length overflows");
+    }
+    // make sure ids is a permutation before moving anything, this marks all
+    // ids
+    for (int i = 0; i < len; ++i) {
+      if (ids[i] < from || ids[i] - from >= len) {
+        throw new IllegalArgumentException("ids is not a permutation of [" + from + ":" + (from + len) + "[");
+      }
+    }
+    for (int i = 0; i < len; ++i) {
+      final int target = (ids[i] < 0 ? ~ids[i] : ids[i]) - from;
+      if (ids[target] < 0) {
+        for (int j = 0; j < len; ++j) {
+          if (ids[j] < 0) {
+            ids[j] = ~ids[j];
+          }
+        }
+        throw new IllegalArgumentException("ids is not a permutation of [" + from + ":" + (from + len) + "[");
+      }
+      ids[target] = ~ids[target];
+    }
+    // follow cycles, unmarking ids as they get visited
+    for (int i = 0; i < len; ++i) {
+      if (ids[i] >= 0) {
+        continue;
+      }
+      final int start = from + i;
+      ids[i] = ~ids[i];
+      if (ids[i] == start) {
+        continue;
+      }
+      save(start);
+      int dest = start;
+      for (int src = ids[dest - from]; src != start; ) {
+        copy(src, dest);
+        dest = src;
+        ids[dest - from] = ~ids[dest - from];
+        src = ids[dest - from];
+      }
+      restore(dest);
+    }
+  }
+
+  /** Save the value of slot <code>i</code> into the temporary storage. */
+  protected abstract void save(int i);
+
+  /** Copy the value of slot <code>src</code> to slot <code>dest</code>. */
+  protected abstract void copy(int src, int dest);
+
+  /** Restore the value from the temporary storage into slot <code>i</code>. */
+  protected abstract void restore(int i);
+
+}
@@ -0,0 +1,39 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * {@link IndirectSorter} that caches a prefix of the key of every record
+ * next to its id. Records whose prefixes differ are then compared without
+ * calling {@link #compare(int, int)}, which saves accesses to the records.
+ */
+public abstract class PrefixIndirectSorter extends IndirectSorter {
+
+  /**
+   * Create a new {@link PrefixIndirectSorter}.
+   * @param stable whether equal records should keep their relative order
+   */
+  protected PrefixIndirectSorter(boolean stable) {
+    super(stable, true);
+  }
+
+  /** Return a prefix of the key of record <code>id</code>. This method is
+   *  called once per id and sort. Prefixes are compared as signed longs and
+   *  must be consistent with {@link #compare(int, int)}:
+   *  <code>prefix(a) &lt; prefix(b)</code> must imply
+   *  <code>compare(a, b) &lt; 0</code>. */
+  @Override
+  protected abstract long prefix(int id);
+
+}
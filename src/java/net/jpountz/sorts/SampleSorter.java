@@ -0,0 +1,285 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link Sorter} implementation based on an in-place variant of the
+ * <a href="http://arxiv.org/abs/1705.02257">super scalar sample sort</a>
+ * algorithm, which only requires {@link #compare(int, int)} and
+ * {@link #swap(int, int)}.
+ * <p>A sorted sample of the slice gives up to 127 splitters, which are kept
+ * at the beginning of the slice. Slots are classified by descending a
+ * perfectly balanced tree of splitters and, if some splitters are equal,
+ * slots that are equal to a splitter go to a dedicated bucket that doesn't
+ * need further sorting, so that slices with few distinct values sort
+ * quickly. Slots are then moved to their bucket with swaps and buckets are
+ * sorted recursively. Like in {@link IntroSorter}, heapsort is used when the
+ * recursion gets too deep.
+ * <p>Slots are classified once to count the size of buckets, and again
+ * while they are moved to their bucket, so that extra memory only depends on
+ * the number of splitters. Slots are never copied.
+ * <p>{@link #sort(int, int, ExecutorService, int)} classifies slots in
+ * parallel and then sorts buckets as independent tasks. This requires
+ * {@link #compare(int, int)} to be safe to call concurrently and
+ * {@link #swap(int, int)} to be safe to call concurrently on different
+ * slots.
+ */
+public abstract class SampleSorter extends Sorter {
+
+  // at most 127 splitters
+  static final int LOG_MAX_BUCKETS = 7;
+
+  /** Create a new {@link SampleSorter}. */
+  public SampleSorter() {}
+
+  static int maxDepth(int len) {
+    return 2 * IntroSorter.ceilLog2(Math.max(2, len));
+  }
+
+  @Override
+  public final void sort(int from, int to) {
+    checkRange(from, to);
+    if (to - from < THRESHOLD) {
+      insertionSort(from, to);
+    } else {
+      sampleSort(from, to, maxDepth(to - from));
+    }
+  }
+
+  /** Sort <code>[from:to[</code> with up to <code>parallelism</code> tasks
+   *  at a time on <code>executor</code>, which must not be the executor of
+   *  the calling thread if it has a bounded number of threads, since the
+   *  calling thread blocks until tasks complete. */
+  public final void sort(int from, int to, ExecutorService executor, int parallelism) {
+    checkRange(from, to);
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be >= 1, got " + parallelism);
+    }
+    final int len = to - from;
+    if (parallelism == 1 || len < ParallelTasks.PARALLEL_THRESHOLD) {
+      sort(from, to);
+      return;
+    }
+    final int maxDepth = maxDepth(len) - 1;
+    final Partition partition = new Partition(from, to, maxDepth);
+    final int buckets = partition.buckets();
+    final int[] counts = new int[buckets];
+    final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+    final int start = partition.splitters.base + partition.splitters.count;
+    final int chunkLen = (to - start - 1) / parallelism + 1;
+    for (int chunkFrom = start; chunkFrom < to; chunkFrom += chunkLen) {
+      final int f = chunkFrom, t = Math.min(to, chunkFrom + chunkLen);
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          final int[] chunkCounts = partition.count(f, t);
+          synchronized (counts) {
+            for (int b = 0; b < buckets; ++b) {
+              counts[b] += chunkCounts[b];
+            }
+          }
+          return null;
+        }
+      });
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+
+    final int[] ends = partition.distribute(counts);
+    tasks.clear();
+    for (int b = 0; b < buckets; b += 2) {
+      final int bucketFrom = ends[b] - counts[b], bucketTo = ends[b];
+      if (bucketTo - bucketFrom > 1) {
+        tasks.add(new Callable<Void>() {
+          @Override
+          public Void call() {
+            sampleSort(bucketFrom, bucketTo, maxDepth);
+            return null;
+          }
+        });
+      }
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+  }
+
+  void sampleSort(int from, int to, int maxDepth) {
+    if (to - from < THRESHOLD) {
+      insertionSort(from, to);
+      return;
+    } else if (--maxDepth < 0) {
+      heapSort(from, to);
+      return;
+    }
+    final Partition partition = new Partition(from, to, maxDepth);
+    final int[] counts = partition.count(partition.splitters.base + partition.splitters.count, to);
+    final int[] ends = partition.distribute(counts);
+    // odd buckets contain values that are equal to a splitter
+    for (int b = 0; b < counts.length; b += 2) {
+      if (counts[b] > 1) {
+        sampleSort(ends[b] - counts[b], ends[b], maxDepth);
+      }
+    }
+  }
+
+  /** Sorted splitters that are stored in slots
+   *  <code>[base:base+count[</code>. */
+  final class Splitters {
+
+    final int base;
+    final int count;
+    // slots of splitters in breadth-first order, starting at index 1
+    final int[] tree;
+    // whether some splitters are equal, in which case slots that are equal
+    // to a splitter go to their own bucket
+    final boolean equalityBuckets;
+
+    Splitters(int from, int to, int maxDepth) {
+      final int len = to - from;
+      final int logBuckets = Math.max(1, Math.min(LOG_MAX_BUCKETS, 31 - Integer.numberOfLeadingZeros(len >>> 8)));
+      final int buckets = 1 << logBuckets;
+      final int oversampling = Math.max(2, IntroSorter.ceilLog2(len) / 5);
+      // move an evenly spread sample to the beginning of the slice and sort it
+      final int sampleSize = oversampling * buckets - 1;
+      final int step = len / sampleSize;
+      for (int i = 1; i < sampleSize; ++i) {
+        swap(from + i, from + i * step);
+      }
+      sampleSort(from, from + sampleSize, maxDepth);
+      // keep every oversampling-th value of the sample as a splitter
+      count = buckets - 1;
+      for (int i = 0; i < count; ++i) {
+        swap(from + i, from + (i + 1) * oversampling - 1);
+      }
+      base = from;
+      boolean equalityBuckets = false;
+      for (int i = 1; i < count && !equalityBuckets; ++i) {
+        equalityBuckets = compare(base + i - 1, base + i) == 0;
+      }
+      this.equalityBuckets = equalityBuckets;
+      tree = new int[buckets];
+      for (int node = 1; node < buckets; ++node) {
+        // in-order index of the node in the tree
+        final int depth = 31 - Integer.numberOfLeadingZeros(node);
+        tree[node] = base + (((node - (1 << depth)) << 1 | 1) << (logBuckets - depth - 1)) - 1;
+      }
+    }
+
+    /** Return the bucket of slot <code>i</code>: <code>2*b</code> if
+     *  <code>b</code> splitters are less than it, or <code>2*b+1</code> if
+     *  it is also equal to splitter <code>b</code> and splitters have
+     *  duplicates. */
+    int classify(int i) {
+      final int buckets = count + 1;
+      int node = 1;
+      while (node < buckets) {
+        node = (node << 1) | (compare(tree[node], i) < 0 ? 1 : 0);
+      }
+      final int b = node - buckets;
+      if (equalityBuckets && b < count && compare(base + b, i) == 0) {
+        return (b << 1) | 1;
+      }
+      return b << 1;
+    }
+
+  }
+
+  /** Partitioning of a slice into buckets. */
+  final class Partition {
+
+    final int to;
+    final Splitters splitters;
+
+    Partition(int from, int to, int maxDepth) {
+      this.to = to;
+      this.splitters = new Splitters(from, to, maxDepth);
+    }
+
+    int buckets() {
+      return (splitters.count << 1) + 1;
+    }
+
+    /** Count the number of slots of every bucket in
+     *  <code>[from:to[</code>. */
+    int[] count(int from, int to) {
+      final int[] counts = new int[buckets()];
+      for (int i = from; i < to; ++i) {
+        ++counts[splitters.classify(i)];
+      }
+      return counts;
+    }
+
+    /** Move slots to their bucket given the number of slots of every
+     *  bucket, and return the end offsets of buckets. */
+    int[] distribute(int[] counts) {
+      final int buckets = buckets();
+      final int[] next = new int[buckets];
+      final int[] ends = new int[buckets];
+      for (int b = 0, offset = splitters.base + splitters.count; b < buckets; ++b) {
+        next[b] = offset;
+        offset += counts[b];
+        ends[b] = offset;
+      }
+      assert ends[buckets - 1] == to;
+      // American flag sort: swap slots until every bucket contains its
+      // slots, classifying slots again as they are visited
+      for (int b = 0; b < buckets; ++b) {
+        final int end = ends[b];
+        while (next[b] < end) {
+          final int v = splitters.classify(next[b]);
+          if (v == b) {
+            ++next[b];
+          } else {
+            swap(next[b], next[v]++);
+          }
+        }
+      }
+
+      // move splitters to their final position: the block of remaining
+      // splitters moves right past every bucket, and drops splitter b in
+      // front of the bucket of values that are equal to it
+      int p = splitters.base, h = splitters.count;
+      for (int b = 0; b < buckets; ++b) {
+        if ((b & 1) == 1) {
+          ++p;
+          --h;
+        }
+        final int m = counts[b];
+        moveBefore(p, h, m);
+        p += m;
+        ends[b] = p;
+      }
+      assert p == to && h == 0;
+      return ends;
+    }
+
+    /** Move the <code>m</code> slots that follow <code>[p:p+h[</code>
+     *  before it, without changing the order of <code>[p:p+h[</code>. */
+    void moveBefore(int p, int h, int m) {
+      if (m >= h) {
+        for (int i = 0; i < h; ++i) {
+          swap(p + i, p + m + i);
+        }
+      } else {
+        rotate(p, p + h, p + h + m);
+      }
+    }
+
+  }
+
+}
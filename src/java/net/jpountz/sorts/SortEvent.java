@@ -0,0 +1,102 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Statistics about a call to {@link Sorter#sort(int, int)}, which are
+ * collected when a {@link SortListener} is registered. Counters that don't
+ * apply to the algorithm are zero.
+ */
+public final class SortEvent {
+
+  private final Sorter sorter;
+  private final String algorithm;
+  private final int length;
+  private final int maxTempSlots;
+  private final long start;
+  private long durationNanos;
+  int tempSlotsUsed;
+  int runs;
+  int heapSortFallbacks;
+  int inPlaceMerges;
+
+  SortEvent(Sorter sorter, String algorithm, int length, int maxTempSlots) {
+    this.sorter = sorter;
+    this.algorithm = algorithm;
+    this.length = length;
+    this.maxTempSlots = maxTempSlots;
+    this.start = System.nanoTime();
+  }
+
+  void end() {
+    durationNanos = System.nanoTime() - start;
+  }
+
+  /** Return the sorter, whose class usually identifies the call site. */
+  public Sorter getSorter() {
+    return sorter;
+  }
+
+  /** Return the name of the algorithm, such as <code>"TimSorter"</code>. */
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /** Return the length of the slice that was sorted. */
+  public int getLength() {
+    return length;
+  }
+
+  /** Return how long the sort took, in nanoseconds. */
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  /** Return the maximum number of temporary slots that the sorter may use,
+   *  or <code>-1</code> if it doesn't use temporary storage. */
+  public int getMaxTempSlots() {
+    return maxTempSlots;
+  }
+
+  /** Return the maximum number of temporary slots that were used at once. */
+  public int getTempSlotsUsed() {
+    return tempSlotsUsed;
+  }
+
+  /** Return the number of runs that {@link TimSorter} found. */
+  public int getRuns() {
+    return runs;
+  }
+
+  /** Return the number of slices that {@link IntroSorter} sorted with
+   *  heapsort because quicksort recursed too deep. */
+  public int getHeapSortFallbacks() {
+    return heapSortFallbacks;
+  }
+
+  /** Return the number of merges that could not use the temporary storage
+   *  and were split with rotations instead. */
+  public int getInPlaceMerges() {
+    return inPlaceMerges;
+  }
+
+  @Override
+  public String toString() {
+    return algorithm + "(length=" + length + ", durationNanos=" + durationNanos
+        + ", maxTempSlots=" + maxTempSlots + ", tempSlotsUsed=" + tempSlotsUsed
+        + ", runs=" + runs + ", heapSortFallbacks=" + heapSortFallbacks
+        + ", inPlaceMerges=" + inPlaceMerges + ")";
+  }
+
+}
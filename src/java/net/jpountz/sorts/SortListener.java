@@ -0,0 +1,29 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Listener that is notified when a sort completes, see
+ * {@link Sorter#setSortListener(SortListener)}.
+ * <p>Implementations are called on the thread that sorted, right after the
+ * sort, so they should be fast, for example by forwarding events to
+ * counters or histograms, or to a Java Flight Recorder event on JVMs that
+ * support it.
+ */
+public interface SortListener {
+
+  /** Called when a sort completes. */
+  void onSort(SortEvent event);
+
+}
@@ -0,0 +1,219 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+/**
+ * A {@link Sorter} that keeps a growing slice of slots sorted incrementally
+ * with a {@link TimSorter}.
+ * <p>The buffer covers slots <code>[from:from+size()[</code>. Values are
+ * added by writing them to the slots that follow the buffer and calling
+ * {@link #append(int)}, which is a constant-time operation. Appended slots
+ * are only analyzed when a read needs them: they are then split into natural
+ * runs that are pushed onto the same stack of runs as {@link TimSorter}
+ * uses, so that only the appended slots need to be scanned and merges keep
+ * the same amortized cost as a regular TimSort.
+ * <ul>
+ * <li>{@link #ensureSorted()} merges all runs, after which slots
+ * <code>[from:from+size()[</code> can be iterated in sorted order,
+ * <li>{@link #rank()} counts values that are less than a key with one binary
+ * search per run, without merging runs,
+ * <li>{@link #lowerBound()} binary searches a key in the sorted view.
+ * </ul>
+ * <p>Calling {@link #sort(int, int)} sorts a slice and makes it the content
+ * of the buffer. A new buffer is empty and starts at slot <code>0</code>.
+ * <p>The stack of runs belongs to a private {@link TimSorter}, so that its
+ * incremental sorting and merging methods, which would not know about the
+ * buffer, cannot be called on it.
+ */
+public abstract class SortedBuffer extends Sorter {
+
+  private final TimSorter runs;
+  int end;
+
+  /**
+   * Create a new {@link SortedBuffer}.
+   * @param maxTempSlots the <a href="TimSorter.html#maxTempSlots">maximum amount of extra memory to run merges</a>
+   */
+  protected SortedBuffer(int maxTempSlots) {
+    runs = new TimSorter(maxTempSlots) {
+
+      @Override
+      protected int compare(int i, int j) {
+        return SortedBuffer.this.compare(i, j);
+      }
+
+      @Override
+      protected void swap(int i, int j) {
+        SortedBuffer.this.swap(i, j);
+      }
+
+      @Override
+      protected void copy(int src, int dest) {
+        SortedBuffer.this.copy(src, dest);
+      }
+
+      @Override
+      protected void saveAll(int i, int len) {
+        SortedBuffer.this.saveAll(i, len);
+      }
+
+      @Override
+      protected void save(int i, int j) {
+        SortedBuffer.this.save(i, j);
+      }
+
+      @Override
+      protected void restore(int i, int j) {
+        SortedBuffer.this.restore(i, j);
+      }
+
+      @Override
+      protected int compareSaved(int i, int j) {
+        return SortedBuffer.this.compareSaved(i, j);
+      }
+
+    };
+  }
+
+  /** Sort <code>[from:to[</code> and make it the content of the buffer. */
+  @Override
+  public final void sort(int from, int to) {
+    checkRange(from, to);
+    runs.reset(from, from);
+    end = to;
+    ensureSorted();
+  }
+
+  /** Empty the buffer, the next appended slot will be <code>from</code>. */
+  public final void clear(int from) {
+    if (from < 0) {
+      throw new IllegalArgumentException("from must be >= 0");
+    }
+    runs.reset(from, from);
+    end = from;
+  }
+
+  /** Add the <code>count</code> slots that follow the buffer to it. */
+  public final void append(int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("count must be >= 0");
+    }
+    if (end + count < end) {
+      throw new IllegalArgumentException("buffer too large");
+    }
+    end += count;
+  }
+
+  /** Return the number of slots in the buffer. */
+  public final int size() {
+    return end - runs.runEnds[0];
+  }
+
+  /** Merge pending runs so that the slots of the buffer are sorted. */
+  public final void ensureSorted() {
+    detectRuns();
+    runs.exhaustStack();
+    assert runs.stackSize <= 1 && runs.runEnd(0) == end;
+  }
+
+  /** Return the number of values in the buffer which are less than the key
+   *  that {@link #compareKey(int)} compares to. This method doesn't need the
+   *  buffer to be sorted and runs in <code>O(r log(n))</code> where
+   *  <code>r</code> is the number of pending runs. */
+  public final int rank() {
+    detectRuns();
+    int rank = 0;
+    for (int i = 0; i < runs.stackSize; ++i) {
+      final int runBase = runs.runBase(i);
+      rank += lowerKey(runBase, runs.runEnd(i)) - runBase;
+    }
+    return rank;
+  }
+
+  /** Sort the buffer and return the first slot whose value is greater than or
+   *  equal to the key that {@link #compareKey(int)} compares to, or
+   *  <code>from+size()</code> if there is no such slot. */
+  public final int lowerBound() {
+    ensureSorted();
+    return lowerKey(runs.runEnds[0], end);
+  }
+
+  /** Split appended slots into sorted runs and push them onto the stack. */
+  void detectRuns() {
+    final TimSorter runs = this.runs;
+    if (runs.to == end) {
+      return;
+    }
+    final int length = end - runs.to;
+    runs.minRun = length <= TimSorter.THRESHOLD ? length : TimSorter.minRun(length);
+    runs.to = end;
+    do {
+      final int runBase = runs.runEnd(0);
+      final int runLen = runs.nextRun();
+      if (runs.stackSize > 0 && compare(runBase - 1, runBase) <= 0) {
+        // the run extends the previous one, typical of values that are
+        // appended in roughly ascending order
+        runs.setRunEnd(0, runBase + runLen);
+      } else {
+        if (runs.stackSize + 1 == runs.runEnds.length) {
+          runs.runEnds = Arrays.copyOf(runs.runEnds, runs.runEnds.length << 1);
+        }
+        runs.pushRunLen(runLen);
+      }
+      runs.ensureInvariants();
+    } while (runs.runEnd(0) < runs.to);
+  }
+
+  int lowerKey(int from, int to) {
+    int len = to - from;
+    while (len > 0) {
+      final int half = len >>> 1;
+      final int mid = from + half;
+      if (compareKey(mid) > 0) {
+        from = mid + 1;
+        len = len - half - 1;
+      } else {
+        len = half;
+      }
+    }
+    return from;
+  }
+
+  /** Copy data from slot <code>src</code> to slot <code>dest</code>. */
+  protected abstract void copy(int src, int dest);
+
+  /** Save all elements between slots <code>i</code> and <code>i+len</code>
+   *  into the temporary storage. */
+  protected abstract void saveAll(int i, int len);
+
+  /** Save slot <code>i</code> at offset <code>j</code> of the temporary
+   *  storage. */
+  protected abstract void save(int i, int j);
+
+  /** Restore element <code>j</code> from the temporary storage into slot <code>i</code>. */
+  protected abstract void restore(int i, int j);
+
+  /** Compare element <code>i</code> from the temporary storage with element
+   *  <code>j</code> from the buffer, similarly to
+   *  {@link #compare(int, int)}. */
+  protected abstract int compareSaved(int i, int j);
+
+  /** Compare the key that is looked up with the value in slot
+   *  <code>j</code>, similarly to {@link #compare(int, int)}. */
+  protected abstract int compareKey(int j);
+
+}
@@ -20,6 +20,20 @@ import java.util.Comparator;
 public abstract class Sorter {
 
   static final int THRESHOLD = 20;
+  static final int MAX_NETWORK_LENGTH = 16;
+
+  private static volatile SortListener listener;
+
+  /** Register a listener that is notified of every sort that
+   *  {@link IntroSorter}, {@link TimSorter} and {@link MergeSorter} run,
+   *  or unregister it with <code>null</code>. Statistics are not collected
+   *  when no listener is registered, which is the default. */
+  public static void setSortListener(SortListener listener) {
+    Sorter.listener = listener;
+  }
+
+  // statistics about the current sort, null if they are not collected
+  SortEvent event;
 
   /** Sole constructor, used for inheritance. */
   protected Sorter() {}
@@ -36,12 +50,48 @@ public abstract class Sorter {
    *  <code>to</code> (exclusive). */
   public abstract void sort(int from, int to);
 
+  /** Start collecting statistics about a sort if a listener is registered. */
+  final void startEvent(String algorithm, int from, int to, int maxTempSlots) {
+    event = listener == null ? null : new SortEvent(this, algorithm, to - from, maxTempSlots);
+  }
+
+  /** Notify the listener of the current sort, if any. */
+  final void endEvent() {
+    final SortEvent event = this.event;
+    if (event != null) {
+      this.event = null;
+      event.end();
+      final SortListener listener = Sorter.listener;
+      if (listener != null) {
+        listener.onSort(event);
+      }
+    }
+  }
+
+  final void recordTempSlots(int slots) {
+    if (event != null && slots > event.tempSlotsUsed) {
+      event.tempSlotsUsed = slots;
+    }
+  }
+
   void checkRange(int from, int to) {
     if (to < from) {
       throw new IllegalArgumentException("'to' must be >= 'from', got from=" + from + " and to=" + to);
     }
   }
 
+  void checkRange(int from, int mid, int to) {
+    checkRange(from, to);
+    if (mid < from || mid > to) {
+      throw new IllegalArgumentException("'mid' must be in [from:to], got from=" + from + ", mid=" + mid + " and to=" + to);
+    }
+  }
+
+  // merge without temporary storage: rotate the two halves of the merge so
+  // that it splits into two smaller merges, which recursively call
+  // mergeInPlace. Sorters that have temporary storage override this method
+  // and only call it when neither side fits in the temporary storage, so
+  // that the smaller merges go through their own merge routine again.
   void mergeInPlace(int from, int mid, int to) {
     if (from == mid || mid == to || compare(mid - 1, mid) <= 0) {
       return;
@@ -132,6 +182,34 @@ public abstract class Sorter {
     return upper(f, to, val);
   }
 
+  // faster than lower when val is at the beginning of [from:to[
+  int lower3(int from, int to, int val) {
+    int f = from, t = f + 1;
+    while (t < to) {
+      if (compare(t, val) >= 0) {
+        return lower(f, t, val);
+      }
+      final int delta = t - f;
+      f = t;
+      t += delta << 1;
+    }
+    return lower(f, to, val);
+  }
+
+  // faster than upper when val is at the end of [from:to[
+  int upper3(int from, int to, int val) {
+    int f = to - 1, t = to;
+    while (f > from) {
+      if (compare(f, val) <= 0) {
+        return upper(f, t, val);
+      }
+      final int delta = t - f;
+      t = f;
+      f -= delta << 1;
+    }
+    return upper(from, t, val);
+  }
+
   final void reverse(int from, int to) {
     for (--to; from < to; ++from, --to) {
       swap(from, to);
@@ -159,6 +237,37 @@ public abstract class Sorter {
     }
   }
 
+  // swaps blocks until the shorter side of the rotation has at most
+  // maxTempSlots slots, then lets doRotate move it through the temporary
+  // storage
+  final void blockSwapRotate(int lo, int mid, int hi, int maxTempSlots) {
+    for (;;) {
+      final int len1 = mid - lo;
+      final int len2 = hi - mid;
+      if (len1 == len2) {
+        while (mid < hi) {
+          swap(lo++, mid++);
+        }
+        return;
+      } else if (Math.min(len1, len2) <= maxTempSlots) {
+        doRotate(lo, mid, hi);
+        return;
+      } else if (len1 < len2) {
+        // swap [lo:mid[ with its final position at the end of the slice and
+        // keep rotating until one side fits in the temporary storage
+        for (int i = lo, j = hi - len1; i < mid; ++i, ++j) {
+          swap(i, j);
+        }
+        hi -= len1;
+      } else {
+        for (int i = lo, j = mid; j < hi; ++i, ++j) {
+          swap(i, j);
+        }
+        lo += len2;
+      }
+    }
+  }
+
   void insertionSort(int from, int to) {
     for (int i = from + 1; i < to; ++i) {
       for (int j = i; j > from; --j) {
@@ -221,24 +330,33 @@ public abstract class Sorter {
     }
   }
 
+  // bottom-up sift down: the value of slot i almost always goes back to the
+  // bottom of the heap, so first walk down to a leaf with one comparison per
+  // level and then climb back to the position of the value
   void siftDown(int i, int from, int to) {
-    for (int leftChild = heapChild(from, i); leftChild < to; leftChild = heapChild(from, i)) {
+    // compare relative indices before computing children, which could
+    // overflow on slices that end close to Integer.MAX_VALUE
+    final int lastParent = (to - from - 2) >> 1;
+    int j = i;
+    while (j - from <= lastParent) {
+      final int leftChild = heapChild(from, j);
       final int rightChild = leftChild + 1;
-      if (compare(i, leftChild) < 0) {
-        if (rightChild < to && compare(leftChild, rightChild) < 0) {
-          swap(i, rightChild);
-          i = rightChild;
-        } else {
-          swap(i, leftChild);
-          i = leftChild;
-        }
-      } else if (rightChild < to && compare(i, rightChild) < 0) {
-        swap(i, rightChild);
-        i = rightChild;
-      } else {
-        break;
-      }
+      j = rightChild < to && compare(leftChild, rightChild) < 0 ? rightChild : leftChild;
+    }
+    while (j != i && compare(i, j) > 0) {
+      j = heapParent(from, j);
     }
+    // move slots of the path from i to j one level up
+    final int levels = heapLevel(from, j) - heapLevel(from, i);
+    for (int l = levels - 1, k = i; l >= 0; --l) {
+      final int next = ((j - from + 1) >>> l) - 1 + from;
+      swap(k, next);
+      k = next;
+    }
+  }
+
+  static int heapLevel(int from, int i) {
+    return 31 - Integer.numberOfLeadingZeros(i - from + 1);
   }
 
   static int heapParent(int from, int i) {
@@ -305,6 +423,538 @@ public abstract class Sorter {
     return (i - from) * 3 + 1 + from;
   }
 
+  // heap sort on a heap of arity 1 << logArity, whose children are
+  // contiguous so that they are likely on the same cache line. The layout
+  // is shifted so that the children of i are at d * i + d relative to from:
+  // every group of siblings starts on a multiple of d, and the first d
+  // slots are the children of a virtual root which is never stored
+  void heapSort(int from, int to, int logArity) {
+    if (to - from <= 1) {
+      return;
+    }
+    final int arity = 1 << logArity;
+    for (int i = from + ((to - from - 1) >> logArity) - 1; i >= from; --i) {
+      siftDown(i, from, to, logArity);
+    }
+    for (int end = to - 1; end > from; --end) {
+      // the greatest value is one of the children of the virtual root
+      int max = from;
+      for (int k = from + 1, last = Math.min(end, from + arity - 1); k <= last; ++k) {
+        if (compare(max, k) < 0) {
+          max = k;
+        }
+      }
+      if (max != end) {
+        swap(max, end);
+        siftDown(max, from, end, logArity);
+      }
+    }
+  }
+
+  // bottom-up, like siftDown(int, int, int): find the path of greatest
+  // children down to a leaf, climb back to the position of the value and
+  // then shift the path one level up
+  void siftDown(int i, int from, int to, int logArity) {
+    final int arity = 1 << logArity;
+    final int lastParent = ((to - from - 1) >> logArity) - 1;
+    int j = i;
+    while (j - from <= lastParent) {
+      final int child = heapChild(from, j, logArity);
+      int max = child;
+      for (int k = child + 1, end = child + Math.min(to - child, arity); k < end; ++k) {
+        if (compare(max, k) < 0) {
+          max = k;
+        }
+      }
+      j = max;
+    }
+    int levels = 0;
+    for (int k = j; k != i; k = heapParent(from, k, logArity)) {
+      ++levels;
+    }
+    while (j != i && compare(i, j) > 0) {
+      j = heapParent(from, j, logArity);
+      --levels;
+    }
+    for (int l = levels - 1, k = i; l >= 0; --l) {
+      final int next = heapAncestor(from, j, logArity, l);
+      swap(k, next);
+      k = next;
+    }
+  }
+
+  // the ancestor of slot i, l levels up
+  static int heapAncestor(int from, int i, int logArity, int l) {
+    // number of slots of the l levels above the level of i, in a complete
+    // heap that includes the virtual root
+    final long offset = ((1L << (l * logArity)) - 1) / ((1 << logArity) - 1);
+    return (int) ((i - from + 1L - offset) >>> (l * logArity)) - 1 + from;
+  }
+
+  // undefined for the first 1 << logArity slots, whose parent is virtual
+  static int heapParent(int from, int i, int logArity) {
+    return ((i - from) >>> logArity) - 1 + from;
+  }
+
+  static int heapChild(int from, int i, int logArity) {
+    return ((i - from + 1) << logArity) + from;
+  }
+
+  /* Sorting networks
+   * Generated code: these networks have the least known number of
+   * comparators for their number of inputs and they have all been checked
+   * against the 0-1 principle. */
+
+  // not stable, to - from must be <= MAX_NETWORK_LENGTH
+  void networkSort(int from, int to) {
+    switch (to - from) {
+    case 16:
+      compareSwap(from, from + 13);
+      compareSwap(from + 1, from + 12);
+      compareSwap(from + 2, from + 15);
+      compareSwap(from + 3, from + 14);
+      compareSwap(from + 4, from + 8);
+      compareSwap(from + 5, from + 6);
+      compareSwap(from + 7, from + 11);
+      compareSwap(from + 9, from + 10);
+      compareSwap(from, from + 5);
+      compareSwap(from + 1, from + 7);
+      compareSwap(from + 2, from + 9);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 6, from + 13);
+      compareSwap(from + 8, from + 14);
+      compareSwap(from + 10, from + 15);
+      compareSwap(from + 11, from + 12);
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from + 6, from + 8);
+      compareSwap(from + 7, from + 9);
+      compareSwap(from + 10, from + 11);
+      compareSwap(from + 12, from + 13);
+      compareSwap(from + 14, from + 15);
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 4, from + 10);
+      compareSwap(from + 5, from + 11);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 8, from + 9);
+      compareSwap(from + 12, from + 14);
+      compareSwap(from + 13, from + 15);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 3, from + 12);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from + 5, from + 7);
+      compareSwap(from + 8, from + 10);
+      compareSwap(from + 9, from + 11);
+      compareSwap(from + 13, from + 14);
+      compareSwap(from + 1, from + 4);
+      compareSwap(from + 2, from + 6);
+      compareSwap(from + 5, from + 8);
+      compareSwap(from + 7, from + 10);
+      compareSwap(from + 9, from + 13);
+      compareSwap(from + 11, from + 14);
+      compareSwap(from + 2, from + 4);
+      compareSwap(from + 3, from + 6);
+      compareSwap(from + 9, from + 12);
+      compareSwap(from + 11, from + 13);
+      compareSwap(from + 3, from + 5);
+      compareSwap(from + 6, from + 8);
+      compareSwap(from + 7, from + 9);
+      compareSwap(from + 10, from + 12);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 5, from + 6);
+      compareSwap(from + 7, from + 8);
+      compareSwap(from + 9, from + 10);
+      compareSwap(from + 11, from + 12);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 8, from + 9);
+      break;
+    case 15:
+      compareSwap(from, from + 13);
+      compareSwap(from + 1, from + 12);
+      compareSwap(from + 3, from + 14);
+      compareSwap(from + 4, from + 8);
+      compareSwap(from + 5, from + 6);
+      compareSwap(from + 7, from + 11);
+      compareSwap(from + 9, from + 10);
+      compareSwap(from, from + 5);
+      compareSwap(from + 1, from + 7);
+      compareSwap(from + 2, from + 9);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 6, from + 13);
+      compareSwap(from + 8, from + 14);
+      compareSwap(from + 11, from + 12);
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from + 6, from + 8);
+      compareSwap(from + 7, from + 9);
+      compareSwap(from + 10, from + 11);
+      compareSwap(from + 12, from + 13);
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 4, from + 10);
+      compareSwap(from + 5, from + 11);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 8, from + 9);
+      compareSwap(from + 12, from + 14);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 3, from + 12);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from + 5, from + 7);
+      compareSwap(from + 8, from + 10);
+      compareSwap(from + 9, from + 11);
+      compareSwap(from + 13, from + 14);
+      compareSwap(from + 1, from + 4);
+      compareSwap(from + 2, from + 6);
+      compareSwap(from + 5, from + 8);
+      compareSwap(from + 7, from + 10);
+      compareSwap(from + 9, from + 13);
+      compareSwap(from + 11, from + 14);
+      compareSwap(from + 2, from + 4);
+      compareSwap(from + 3, from + 6);
+      compareSwap(from + 9, from + 12);
+      compareSwap(from + 11, from + 13);
+      compareSwap(from + 3, from + 5);
+      compareSwap(from + 6, from + 8);
+      compareSwap(from + 7, from + 9);
+      compareSwap(from + 10, from + 12);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 5, from + 6);
+      compareSwap(from + 7, from + 8);
+      compareSwap(from + 9, from + 10);
+      compareSwap(from + 11, from + 12);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 8, from + 9);
+      break;
+    case 14:
+      compareSwap(from, from + 13);
+      compareSwap(from + 1, from + 12);
+      compareSwap(from + 4, from + 8);
+      compareSwap(from + 5, from + 6);
+      compareSwap(from + 7, from + 11);
+      compareSwap(from + 9, from + 10);
+      compareSwap(from, from + 5);
+      compareSwap(from + 1, from + 7);
+      compareSwap(from + 2, from + 9);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 6, from + 13);
+      compareSwap(from + 11, from + 12);
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from + 6, from + 8);
+      compareSwap(from + 7, from + 9);
+      compareSwap(from + 10, from + 11);
+      compareSwap(from + 12, from + 13);
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 4, from + 10);
+      compareSwap(from + 5, from + 11);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 8, from + 9);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 3, from + 12);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from + 5, from + 7);
+      compareSwap(from + 8, from + 10);
+      compareSwap(from + 9, from + 11);
+      compareSwap(from + 1, from + 4);
+      compareSwap(from + 2, from + 6);
+      compareSwap(from + 5, from + 8);
+      compareSwap(from + 7, from + 10);
+      compareSwap(from + 9, from + 13);
+      compareSwap(from + 2, from + 4);
+      compareSwap(from + 3, from + 6);
+      compareSwap(from + 9, from + 12);
+      compareSwap(from + 11, from + 13);
+      compareSwap(from + 3, from + 5);
+      compareSwap(from + 6, from + 8);
+      compareSwap(from + 7, from + 9);
+      compareSwap(from + 10, from + 12);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 5, from + 6);
+      compareSwap(from + 7, from + 8);
+      compareSwap(from + 9, from + 10);
+      compareSwap(from + 11, from + 12);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 8, from + 9);
+      break;
+    case 13:
+      compareSwap(from, from + 12);
+      compareSwap(from + 1, from + 10);
+      compareSwap(from + 2, from + 9);
+      compareSwap(from + 3, from + 7);
+      compareSwap(from + 5, from + 11);
+      compareSwap(from + 6, from + 8);
+      compareSwap(from + 1, from + 6);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 11);
+      compareSwap(from + 7, from + 9);
+      compareSwap(from + 8, from + 10);
+      compareSwap(from, from + 4);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 3, from + 6);
+      compareSwap(from + 7, from + 8);
+      compareSwap(from + 9, from + 10);
+      compareSwap(from + 11, from + 12);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from + 5, from + 9);
+      compareSwap(from + 8, from + 11);
+      compareSwap(from + 10, from + 12);
+      compareSwap(from, from + 5);
+      compareSwap(from + 3, from + 8);
+      compareSwap(from + 4, from + 7);
+      compareSwap(from + 6, from + 11);
+      compareSwap(from + 9, from + 10);
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 5);
+      compareSwap(from + 6, from + 9);
+      compareSwap(from + 7, from + 8);
+      compareSwap(from + 10, from + 11);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 2, from + 4);
+      compareSwap(from + 5, from + 6);
+      compareSwap(from + 9, from + 10);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 5, from + 7);
+      compareSwap(from + 6, from + 8);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 8, from + 9);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 5, from + 6);
+      break;
+    case 12:
+      compareSwap(from, from + 8);
+      compareSwap(from + 1, from + 7);
+      compareSwap(from + 2, from + 6);
+      compareSwap(from + 3, from + 11);
+      compareSwap(from + 4, from + 10);
+      compareSwap(from + 5, from + 9);
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 5);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 6, from + 9);
+      compareSwap(from + 7, from + 8);
+      compareSwap(from + 10, from + 11);
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 6);
+      compareSwap(from + 5, from + 10);
+      compareSwap(from + 9, from + 11);
+      compareSwap(from, from + 3);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from + 5, from + 7);
+      compareSwap(from + 8, from + 11);
+      compareSwap(from + 9, from + 10);
+      compareSwap(from + 1, from + 4);
+      compareSwap(from + 3, from + 5);
+      compareSwap(from + 6, from + 8);
+      compareSwap(from + 7, from + 10);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 2, from + 5);
+      compareSwap(from + 6, from + 9);
+      compareSwap(from + 8, from + 10);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 8, from + 9);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from + 5, from + 7);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 5, from + 6);
+      compareSwap(from + 7, from + 8);
+      break;
+    case 11:
+      compareSwap(from, from + 8);
+      compareSwap(from + 1, from + 7);
+      compareSwap(from + 2, from + 6);
+      compareSwap(from + 4, from + 10);
+      compareSwap(from + 5, from + 9);
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 5);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 6, from + 9);
+      compareSwap(from + 7, from + 8);
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 6);
+      compareSwap(from + 5, from + 10);
+      compareSwap(from, from + 3);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from + 5, from + 7);
+      compareSwap(from + 9, from + 10);
+      compareSwap(from + 1, from + 4);
+      compareSwap(from + 3, from + 5);
+      compareSwap(from + 6, from + 8);
+      compareSwap(from + 7, from + 10);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 2, from + 5);
+      compareSwap(from + 6, from + 9);
+      compareSwap(from + 8, from + 10);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 8, from + 9);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from + 5, from + 7);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 5, from + 6);
+      compareSwap(from + 7, from + 8);
+      break;
+    case 10:
+      compareSwap(from, from + 8);
+      compareSwap(from + 1, from + 9);
+      compareSwap(from + 2, from + 7);
+      compareSwap(from + 3, from + 5);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 4);
+      compareSwap(from + 5, from + 8);
+      compareSwap(from + 7, from + 9);
+      compareSwap(from, from + 3);
+      compareSwap(from + 2, from + 4);
+      compareSwap(from + 5, from + 7);
+      compareSwap(from + 6, from + 9);
+      compareSwap(from, from + 1);
+      compareSwap(from + 3, from + 6);
+      compareSwap(from + 8, from + 9);
+      compareSwap(from + 1, from + 5);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 8);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 3, from + 5);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from + 7, from + 8);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 5, from + 6);
+      break;
+    case 9:
+      compareSwap(from, from + 3);
+      compareSwap(from + 1, from + 7);
+      compareSwap(from + 2, from + 5);
+      compareSwap(from + 4, from + 8);
+      compareSwap(from, from + 7);
+      compareSwap(from + 2, from + 4);
+      compareSwap(from + 3, from + 8);
+      compareSwap(from + 5, from + 6);
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from + 7, from + 8);
+      compareSwap(from + 1, from + 4);
+      compareSwap(from + 3, from + 6);
+      compareSwap(from + 5, from + 7);
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 4);
+      compareSwap(from + 3, from + 5);
+      compareSwap(from + 6, from + 8);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 5, from + 6);
+      break;
+    case 8:
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from + 5, from + 7);
+      compareSwap(from, from + 4);
+      compareSwap(from + 1, from + 5);
+      compareSwap(from + 2, from + 6);
+      compareSwap(from + 3, from + 7);
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from + 6, from + 7);
+      compareSwap(from + 2, from + 4);
+      compareSwap(from + 3, from + 5);
+      compareSwap(from + 1, from + 4);
+      compareSwap(from + 3, from + 6);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 5, from + 6);
+      break;
+    case 7:
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 4, from + 6);
+      compareSwap(from, from + 4);
+      compareSwap(from + 1, from + 5);
+      compareSwap(from + 2, from + 6);
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from + 2, from + 4);
+      compareSwap(from + 3, from + 5);
+      compareSwap(from + 1, from + 4);
+      compareSwap(from + 3, from + 6);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from + 5, from + 6);
+      break;
+    case 6:
+      compareSwap(from, from + 5);
+      compareSwap(from + 3, from + 4);
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from + 4, from + 5);
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 1, from + 4);
+      compareSwap(from + 2, from + 4);
+      compareSwap(from + 3, from + 5);
+      compareSwap(from + 3, from + 4);
+      break;
+    case 5:
+      compareSwap(from + 3, from + 4);
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 1, from + 2);
+      compareSwap(from + 1, from + 4);
+      compareSwap(from + 2, from + 4);
+      compareSwap(from + 3, from + 4);
+      break;
+    case 4:
+      compareSwap(from, from + 1);
+      compareSwap(from + 2, from + 3);
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 3);
+      compareSwap(from + 1, from + 2);
+      break;
+    case 3:
+      compareSwap(from, from + 1);
+      compareSwap(from, from + 2);
+      compareSwap(from + 1, from + 2);
+      break;
+    case 2:
+      compareSwap(from, from + 1);
+      break;
+    default:
+      assert to - from <= 1;
+      break;
+    }
+  }
+
+  private void compareSwap(int i, int j) {
+    if (compare(i, j) > 0) {
+      swap(i, j);
+    }
+  }
+
   /* Helper methods */
 
   /** Swap elements at slots <code>i</code> and <code>j</code> in <code>arr</code>. */
@@ -356,4 +1006,180 @@ public abstract class Sorter {
     arr[j] = tmp;
   }
 
+  /** Merge sorted slices <code>[from:mid[</code> and <code>[mid:to[</code> of
+   *  <code>src</code> into <code>dest</code>, starting at offset
+   *  <code>destFrom</code>. The destination must not overlap with the source.
+   *  <p>Merging is performed from both ends at the same time and without
+   *  data-dependent branches, which makes it faster than a regular merge
+   *  on data that is not partially sorted. */
+  protected static void merge(int[] src, int from, int mid, int to, int[] dest, int destFrom) {
+    int i = from, j = mid, k = destFrom;
+    int ii = mid - 1, jj = to - 1, kk = destFrom + to - from - 1;
+    // the n smallest and n largest values can be merged without bound checks
+    for (int n = Math.min(mid - from, to - mid); n > 0; --n) {
+      final int a = src[i], b = src[j];
+      final int bLower = (int) (((long) b - a) >>> 63);
+      dest[k++] = Math.min(a, b);
+      i += 1 - bLower;
+      j += bLower;
+      final int c = src[ii], d = src[jj];
+      final int dLower = (int) (((long) d - c) >>> 63);
+      dest[kk--] = Math.max(c, d);
+      ii -= dLower;
+      jj -= 1 - dLower;
+    }
+    while (i <= ii && j <= jj) {
+      final int a = src[i], b = src[j];
+      final int bLower = (int) (((long) b - a) >>> 63);
+      dest[k++] = Math.min(a, b);
+      i += 1 - bLower;
+      j += bLower;
+    }
+    System.arraycopy(src, i, dest, k, ii + 1 - i);
+    System.arraycopy(src, j, dest, k + ii + 1 - i, jj + 1 - j);
+  }
+
+  /** Merge sorted slices <code>[from:mid[</code> and <code>[mid:to[</code> of
+   *  <code>src</code> into <code>dest</code>, starting at offset
+   *  <code>destFrom</code>. The destination must not overlap with the source.
+   *  @see #merge(int[], int, int, int, int[], int) */
+  protected static void merge(long[] src, int from, int mid, int to, long[] dest, int destFrom) {
+    int i = from, j = mid, k = destFrom;
+    int ii = mid - 1, jj = to - 1, kk = destFrom + to - from - 1;
+    for (int n = Math.min(mid - from, to - mid); n > 0; --n) {
+      final long a = src[i], b = src[j];
+      final int bLower = lessThan(b, a);
+      dest[k++] = Math.min(a, b);
+      i += 1 - bLower;
+      j += bLower;
+      final long c = src[ii], d = src[jj];
+      final int dLower = lessThan(d, c);
+      dest[kk--] = Math.max(c, d);
+      ii -= dLower;
+      jj -= 1 - dLower;
+    }
+    while (i <= ii && j <= jj) {
+      final long a = src[i], b = src[j];
+      final int bLower = lessThan(b, a);
+      dest[k++] = Math.min(a, b);
+      i += 1 - bLower;
+      j += bLower;
+    }
+    System.arraycopy(src, i, dest, k, ii + 1 - i);
+    System.arraycopy(src, j, dest, k + ii + 1 - i, jj + 1 - j);
+  }
+
+  /** Sort <code>[from:to[</code> of <code>arr</code> with insertion sort. This
+   *  shifts values instead of swapping them and is best used on small
+   *  slices. */
+  protected static void insertionSort(int[] arr, int from, int to) {
+    for (int i = from + 1; i < to; ++i) {
+      final int v = arr[i];
+      int j = i - 1;
+      for ( ; j >= from && arr[j] > v; --j) {
+        arr[j + 1] = arr[j];
+      }
+      arr[j + 1] = v;
+    }
+  }
+
+  /** Sort <code>[from:to[</code> of <code>arr</code> with insertion sort.
+   *  @see #insertionSort(int[], int, int) */
+  protected static void insertionSort(long[] arr, int from, int to) {
+    for (int i = from + 1; i < to; ++i) {
+      final long v = arr[i];
+      int j = i - 1;
+      for ( ; j >= from && arr[j] > v; --j) {
+        arr[j + 1] = arr[j];
+      }
+      arr[j + 1] = v;
+    }
+  }
+
+  /** Partition <code>[from:to[</code> of <code>arr</code>, which must contain
+   *  at least 3 values, around the median of its first, middle and last
+   *  values. The return value follows the contract of
+   *  {@link IntroSorter#partition(int, int)}.
+   *  <p>Values are moved unconditionally and indices are incremented
+   *  arithmetically so that the partitioning loop has no data-dependent
+   *  branches. */
+  protected static int partition(int[] arr, int from, int to) {
+    final int mid = (from + to) >>> 1;
+    if (arr[from] > arr[mid]) {
+      swap(arr, from, mid);
+    }
+    if (arr[mid] > arr[to - 1]) {
+      swap(arr, mid, to - 1);
+      if (arr[from] > arr[mid]) {
+        swap(arr, from, mid);
+      }
+    }
+    swap(arr, from, mid);
+    final int pivot = arr[from];
+    // values that are less than the pivot go to [from+1:i[
+    int i = from + 1;
+    for (int j = from + 1; j < to; ++j) {
+      final int v = arr[j];
+      arr[j] = arr[i];
+      arr[i] = v;
+      i += (int) (((long) v - pivot) >>> 63);
+    }
+    swap(arr, from, i - 1);
+    if (i > from + 1) {
+      return i;
+    }
+    // the pivot is the minimum value, move values that are equal to it to
+    // the beginning of the slice so that they don't need to be sorted again
+    for (int j = i; j < to; ++j) {
+      final int v = arr[j];
+      arr[j] = arr[i];
+      arr[i] = v;
+      i += (int) (((long) v - pivot - 1) >>> 63);
+    }
+    return i;
+  }
+
+  /** Partition <code>[from:to[</code> of <code>arr</code>, which must contain
+   *  at least 3 values, around the median of its first, middle and last
+   *  values.
+   *  @see #partition(int[], int, int) */
+  protected static int partition(long[] arr, int from, int to) {
+    final int mid = (from + to) >>> 1;
+    if (arr[from] > arr[mid]) {
+      swap(arr, from, mid);
+    }
+    if (arr[mid] > arr[to - 1]) {
+      swap(arr, mid, to - 1);
+      if (arr[from] > arr[mid]) {
+        swap(arr, from, mid);
+      }
+    }
+    swap(arr, from, mid);
+    final long pivot = arr[from];
+    int i = from + 1;
+    for (int j = from + 1; j < to; ++j) {
+      final long v = arr[j];
+      arr[j] = arr[i];
+      arr[i] = v;
+      i += lessThan(v, pivot);
+    }
+    swap(arr, from, i - 1);
+    if (i > from + 1) {
+      return i;
+    }
+    for (int j = i; j < to; ++j) {
+      final long v = arr[j];
+      arr[j] = arr[i];
+      arr[i] = v;
+      i += 1 - lessThan(pivot, v);
+    }
+    return i;
+  }
+
+  // 1 if a < b, 0 otherwise, without branches
+  private static int lessThan(long a, long b) {
+    final long diffSigns = a ^ b;
+    return (int) (((diffSigns & a) | (~diffSigns & (a - b))) >>> 63);
+  }
+
 }
@@ -0,0 +1,356 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * {@link PrefixIndirectSorter} that sorts rows of a table by several columns, each
+ * of them being sorted in ascending or descending order, with null values
+ * either first or last.
+ * <p>Leading columns are encoded into a normalized key of 64 bits, which is
+ * cached for every row and compared as an unsigned integer. Columns are only
+ * compared one by one when normalized keys are equal, starting with the
+ * first column that could not be fully encoded into the normalized key.
+ * Integer columns are encoded relatively to their minimum value on as few
+ * bits as possible, so that more columns fit in the normalized key.
+ * <p>Columns are read when they are added and when rows are sorted, so they
+ * must not be modified in-between.
+ * <p>Like any {@link IndirectSorter}, this class returns row ids and leaves
+ * columns untouched, they can then be reordered with a {@link Permuter}.
+ */
+public final class TableSorter extends PrefixIndirectSorter {
+
+  private static final int KEY_BITS = 64;
+
+  private Column[] columns;
+  private int[] keyBits; // number of bits of every column in the key
+  private int freeBits; // number of bits that are still free in the key
+  private int tieBreakStart; // first column that is not fully encoded
+
+  /**
+   * Create a new {@link TableSorter} without columns.
+   * @param stable whether rows that are equal on all columns should keep their relative order
+   */
+  public TableSorter(boolean stable) {
+    super(stable);
+    columns = new Column[0];
+    keyBits = new int[0];
+    freeBits = KEY_BITS;
+  }
+
+  /** Add a column of longs to sort on, <code>nulls</code> may be
+   *  <code>null</code> if the column has no null value. */
+  public TableSorter addColumn(long[] values, BitSet nulls, boolean descending, boolean nullsFirst) {
+    return addColumn(new LongColumn(values, nulls, descending, nullsFirst));
+  }
+
+  /** Add a column of ints to sort on, <code>nulls</code> may be
+   *  <code>null</code> if the column has no null value. */
+  public TableSorter addColumn(int[] values, BitSet nulls, boolean descending, boolean nullsFirst) {
+    return addColumn(new IntColumn(values, nulls, descending, nullsFirst));
+  }
+
+  /** Add a column of doubles to sort on, <code>nulls</code> may be
+   *  <code>null</code> if the column has no null value. Doubles are ordered
+   *  like {@link Double#compare(double, double)} does. */
+  public TableSorter addColumn(double[] values, BitSet nulls, boolean descending, boolean nullsFirst) {
+    return addColumn(new DoubleColumn(values, nulls, descending, nullsFirst));
+  }
+
+  /** Add a column of byte arrays to sort on. Byte arrays are compared
+   *  lexicographically as unsigned bytes and <code>null</code> entries are
+   *  null values. */
+  public TableSorter addColumn(byte[][] values, boolean descending, boolean nullsFirst) {
+    return addColumn(new BytesColumn(values, descending, nullsFirst));
+  }
+
+  private TableSorter addColumn(Column column) {
+    final int n = columns.length;
+    columns = Arrays.copyOf(columns, n + 1);
+    columns[n] = column;
+    keyBits = Arrays.copyOf(keyBits, n + 1);
+    keyBits[n] = Math.min(freeBits, column.bits);
+    freeBits -= keyBits[n];
+    if (tieBreakStart == n && keyBits[n] == column.bits) {
+      tieBreakStart = n + 1;
+    }
+    return this;
+  }
+
+  @Override
+  protected int compare(int a, int b) {
+    for (int i = tieBreakStart; i < columns.length; ++i) {
+      final int cmp = columns[i].compare(a, b);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  protected long prefix(int id) {
+    long key = 0;
+    for (int i = 0; i < columns.length; ++i) {
+      final int bits = keyBits[i];
+      if (bits != 0) {
+        key = (bits == KEY_BITS ? 0 : key << bits) | columns[i].key(id, bits);
+      }
+    }
+    if (freeBits > 0) {
+      key = freeBits == KEY_BITS ? 0 : key << freeBits;
+    }
+    // prefixes are compared as signed longs
+    return key ^ Long.MIN_VALUE;
+  }
+
+  private static abstract class Column {
+
+    final boolean nullable;
+    final int valueBits;
+    final int bits; // Integer.MAX_VALUE if the column can't be fully encoded
+    final boolean descending;
+    final boolean nullsFirst;
+
+    Column(boolean nullable, int valueBits, boolean bounded, boolean descending, boolean nullsFirst) {
+      this.nullable = nullable;
+      this.valueBits = valueBits;
+      this.bits = bounded ? valueBits + (nullable ? 1 : 0) : Integer.MAX_VALUE;
+      this.descending = descending;
+      this.nullsFirst = nullsFirst;
+    }
+
+    abstract boolean isNull(int row);
+
+    /** Compare non-null values in ascending order. */
+    abstract int compareValues(int a, int b);
+
+    /** Return the normalized value of a non-null row in ascending order, in
+     *  the lowest <code>valueBits</code> bits. */
+    abstract long value(int row);
+
+    final int compare(int a, int b) {
+      if (nullable) {
+        final boolean aNull = isNull(a);
+        final boolean bNull = isNull(b);
+        if (aNull || bNull) {
+          if (aNull == bNull) {
+            return 0;
+          }
+          return aNull == nullsFirst ? -1 : 1;
+        }
+      }
+      final int cmp = compareValues(a, b);
+      return descending ? -cmp : cmp;
+    }
+
+    /** Return the <code>n</code> highest bits of the normalized key of a
+     *  row, which is made of a null flag if the column is nullable followed
+     *  by its normalized value. */
+    final long key(int row, int n) {
+      final boolean isNull = nullable && isNull(row);
+      long value = 0;
+      if (!isNull) {
+        value = value(row);
+        if (descending) {
+          value = ~value;
+          if (valueBits < 64) {
+            value &= (1L << valueBits) - 1;
+          }
+        }
+      }
+      if (!nullable) {
+        return value >>> (valueBits - n);
+      }
+      final long flag = isNull == nullsFirst ? 0 : 1;
+      if (n == 1) {
+        return flag;
+      }
+      return (flag << (n - 1)) | (value >>> (valueBits - (n - 1)));
+    }
+
+  }
+
+  private static final class LongColumn extends Column {
+
+    private final long[] values;
+    private final BitSet nulls;
+    private final long min;
+
+    LongColumn(long[] values, BitSet nulls, boolean descending, boolean nullsFirst) {
+      super(nulls != null, bitsRequired(values, nulls), true, descending, nullsFirst);
+      this.values = values;
+      this.nulls = nulls;
+      min = min(values, nulls);
+    }
+
+    private static long min(long[] values, BitSet nulls) {
+      long min = Long.MAX_VALUE;
+      for (int i = 0; i < values.length; ++i) {
+        if (nulls == null || !nulls.get(i)) {
+          min = Math.min(min, values[i]);
+        }
+      }
+      return min;
+    }
+
+    private static int bitsRequired(long[] values, BitSet nulls) {
+      long max = Long.MIN_VALUE;
+      for (int i = 0; i < values.length; ++i) {
+        if (nulls == null || !nulls.get(i)) {
+          max = Math.max(max, values[i]);
+        }
+      }
+      final long min = min(values, nulls);
+      return max < min ? 0 : Long.SIZE - Long.numberOfLeadingZeros(max - min);
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return nulls.get(row);
+    }
+
+    @Override
+    int compareValues(int a, int b) {
+      final long v1 = values[a], v2 = values[b];
+      return v1 < v2 ? -1 : v1 == v2 ? 0 : 1;
+    }
+
+    @Override
+    long value(int row) {
+      // unsigned
+      return values[row] - min;
+    }
+
+  }
+
+  private static final class IntColumn extends Column {
+
+    private final int[] values;
+    private final BitSet nulls;
+    private final int min;
+
+    IntColumn(int[] values, BitSet nulls, boolean descending, boolean nullsFirst) {
+      super(nulls != null, bitsRequired(values, nulls), true, descending, nullsFirst);
+      this.values = values;
+      this.nulls = nulls;
+      min = min(values, nulls);
+    }
+
+    private static int min(int[] values, BitSet nulls) {
+      int min = Integer.MAX_VALUE;
+      for (int i = 0; i < values.length; ++i) {
+        if (nulls == null || !nulls.get(i)) {
+          min = Math.min(min, values[i]);
+        }
+      }
+      return min;
+    }
+
+    private static int bitsRequired(int[] values, BitSet nulls) {
+      int max = Integer.MIN_VALUE;
+      for (int i = 0; i < values.length; ++i) {
+        if (nulls == null || !nulls.get(i)) {
+          max = Math.max(max, values[i]);
+        }
+      }
+      final int min = min(values, nulls);
+      return max < min ? 0 : Long.SIZE - Long.numberOfLeadingZeros((long) max - min);
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return nulls.get(row);
+    }
+
+    @Override
+    int compareValues(int a, int b) {
+      final int v1 = values[a], v2 = values[b];
+      return v1 < v2 ? -1 : v1 == v2 ? 0 : 1;
+    }
+
+    @Override
+    long value(int row) {
+      return (long) values[row] - min;
+    }
+
+  }
+
+  private static final class DoubleColumn extends Column {
+
+    private final double[] values;
+    private final BitSet nulls;
+
+    DoubleColumn(double[] values, BitSet nulls, boolean descending, boolean nullsFirst) {
+      super(nulls != null, 64, true, descending, nullsFirst);
+      this.values = values;
+      this.nulls = nulls;
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return nulls.get(row);
+    }
+
+    @Override
+    int compareValues(int a, int b) {
+      return Double.compare(values[a], values[b]);
+    }
+
+    @Override
+    long value(int row) {
+      return KeyEncoder.encodeDouble(values[row]);
+    }
+
+  }
+
+  private static final class BytesColumn extends Column {
+
+    private final byte[][] values;
+
+    BytesColumn(byte[][] values, boolean descending, boolean nullsFirst) {
+      super(true, 64, false, descending, nullsFirst);
+      this.values = values;
+    }
+
+    @Override
+    boolean isNull(int row) {
+      return values[row] == null;
+    }
+
+    @Override
+    int compareValues(int a, int b) {
+      final byte[] v1 = values[a], v2 = values[b];
+      final int len = Math.min(v1.length, v2.length);
+      for (int i = 0; i < len; ++i) {
+        final int cmp = (v1[i] & 0xFF) - (v2[i] & 0xFF);
+        if (cmp != 0) {
+          return cmp;
+        }
+      }
+      return v1.length - v2.length;
+    }
+
+    @Override
+    long value(int row) {
+      final byte[] v = values[row];
+      return KeyEncoder.bytesPrefix(v, 0, v.length);
+    }
+
+  }
+
+}
@@ -25,12 +25,23 @@ import java.util.Arrays;
  * <p><b>NOTE</b>:There are a few differences with the original implementation:<ul>
  * <li><a name="maxTempSlots"/>The extra amount of memory to perform merges is
  * configurable. This allows small merges to be very fast while large merges
- * will be performed in-place (slightly slower). You can make sure that the
- * fast merge routine will always be used by having <code>maxTempSlots</code>
- * equal to half of the length of the slice of data to sort.
- * <li>Only the fast merge routine can gallop (the one that doesn't run
- * in-place) and it only gallops on the longest slice.
+ * will be split using rotations until one of their sides fits in the
+ * temporary storage (slightly slower). You can make sure that the fast merge
+ * routine will always be used by having <code>maxTempSlots</code> equal to
+ * half of the length of the slice of data to sort.
+ * <li>The fast merge routine (the one that doesn't run in-place) only
+ * gallops on the longest slice. Merges that don't fit in the temporary
+ * storage gallop to find long runs from either side, which are then moved
+ * with rotations.
  * </ul>
+ * <p>A sort can also be run incrementally, for example to spread it across
+ * the ticks of an event loop: {@link #startSort(int, int)} prepares the sort
+ * and every call to {@link #step(int)} or {@link #sortSome(long)} then does
+ * a bounded amount of work. Run detection, saves to the temporary storage
+ * and merges that go through the temporary storage are paused and resumed,
+ * so as long as <code>maxTempSlots</code> is at least half the length of the
+ * slice, steps do about <code>maxWork</code> compares, swaps and writes.
+ * Merges that don't fit in the temporary storage run at once.
  */
 public abstract class TimSorter extends Sorter {
 
@@ -38,6 +49,15 @@ public abstract class TimSorter extends Sorter {
   static final int THRESHOLD = 64;
   static final int STACKSIZE = 40; // depends on MINRUN
   static final int MIN_GALLOP = 7;
+  static final int STEP_WORK = 1024; // slots to write between two clock checks
+
+  // states of a run that is detected incrementally, see nextRunSome
+  static final int NO_RUN = 0;
+  static final int RUN_STARTED = 1;
+  static final int RUN_ASCENDING = 2;
+  static final int RUN_DESCENDING = 3;
+  static final int RUN_REVERSING = 4;
+  static final int RUN_EXTENDING = 5;
 
   final int maxTempSlots;
   int minRun;
@@ -45,6 +65,16 @@ public abstract class TimSorter extends Sorter {
   int stackSize;
   int[] runEnds;
 
+  // state of a run that is detected incrementally, see step
+  int runState = NO_RUN;
+  int runScan, runRevLo, runRevHi, runHi;
+
+  // state of a merge that is run incrementally, see step
+  int merging = -1; // index of the run that is being merged
+  boolean mergingLo;
+  int mergeI, mergeJ, mergeDest, mergeBound, mergeLen;
+  int mergeSaveFrom, mergeSaved; // slots that are saved before merging
+
   /**
    * Create a new {@link TimSorter}.
    * @param maxTempSlots the <a href="#maxTempSlots">maximum amount of extra memory to run merges</a>
@@ -94,6 +124,9 @@ public abstract class TimSorter extends Sorter {
   /** Compute the length of the next run, make the run sorted and return its
    *  length. */
   int nextRun() {
+    if (event != null) {
+      ++event.runs;
+    }
     final int runBase = runEnd(0);
     assert runBase < to;
     if (runBase == to - 1) {
@@ -117,8 +150,10 @@ public abstract class TimSorter extends Sorter {
     return runHi - runBase;
   }
 
-  void ensureInvariants() {
-    while (stackSize > 1) {
+  /** Return the index of the run to merge with the next one in order to
+   *  restore invariants on the stack of runs, or -1 if they hold. */
+  int mergeIndex() {
+    if (stackSize > 1) {
       final int runLen0 = runLen(0);
       final int runLen1 = runLen(1);
 
@@ -127,21 +162,20 @@ public abstract class TimSorter extends Sorter {
 
         if (runLen2 <= runLen1 + runLen0) {
           // merge the smaller of 0 and 2 with 1
-          if (runLen2 < runLen0) {
-            mergeAt(1);
-          } else {
-            mergeAt(0);
-          }
-          continue;
+          return runLen2 < runLen0 ? 1 : 0;
         }
       }
 
       if (runLen1 <= runLen0) {
-        mergeAt(0);
-        continue;
+        return 0;
       }
+    }
+    return -1;
+  }
 
-      break;
+  void ensureInvariants() {
+    for (int n = mergeIndex(); n >= 0; n = mergeIndex()) {
+      mergeAt(n);
     }
   }
 
@@ -162,61 +196,357 @@ public abstract class TimSorter extends Sorter {
 
   void mergeAt(int n) {
     assert stackSize >= 2;
-    merge(runBase(n + 1), runBase(n), runEnd(n));
+    doMerge(runBase(n + 1), runBase(n), runEnd(n));
+    popRun(n);
+  }
+
+  // remove run n from the stack, once it has been merged into run n+1
+  void popRun(int n) {
     for (int j = n + 1; j > 0; --j) {
       setRunEnd(j, runEnd(j-1));
     }
     --stackSize;
   }
 
-  void merge(int lo, int mid, int hi) {
-    if (compare(mid - 1, mid) <= 0) {
+  /** Merge sorted slices <code>[from:mid[</code> and <code>[mid:to[</code>.
+   *  This trims values that are already at their final position with
+   *  galloping searches and uses the temporary storage as soon as one side
+   *  of the merge fits, or rotations otherwise. Ties are resolved in favor
+   *  of <code>[from:mid[</code>. */
+  public final void merge(int from, int mid, int to) {
+    checkRange(from, mid, to);
+    doMerge(from, mid, to);
+  }
+
+  void doMerge(int lo, int mid, int hi) {
+    for (;;) {
+      if (lo == mid || mid == hi || compare(mid - 1, mid) <= 0) {
+        return;
+      }
+      lo = upper2(lo, mid, mid);
+      hi = lower2(mid, hi, mid - 1);
+
+      if (hi - mid <= mid - lo && hi - mid <= maxTempSlots) {
+        recordTempSlots(hi - mid);
+        mergeHi(lo, mid, hi);
+        return;
+      } else if (mid - lo <= maxTempSlots) {
+        recordTempSlots(mid - lo);
+        mergeLo(lo, mid, hi);
+        return;
+      }
+
+      // neither side fits in the temporary storage: if a run from one side
+      // is longer than the other side, move it to its final position with a
+      // rotation, which has a linear cost in the length of the run
+      if (mid - lo <= hi - mid) {
+        final int cut = lower3(mid, hi, lo);
+        if (cut - mid >= mid - lo) {
+          rotate(lo, mid, cut);
+          lo += cut - mid + 1;
+          mid = cut;
+          continue;
+        }
+      } else {
+        final int cut = upper3(lo, mid, hi - 1);
+        if (mid - cut >= hi - mid) {
+          rotate(cut, mid, hi);
+          hi -= mid - cut + 1;
+          mid = cut;
+          continue;
+        }
+      }
+
+      // neither side fits in the temporary storage, see Sorter.mergeInPlace
+      if (event != null) {
+        ++event.inPlaceMerges;
+      }
+      super.mergeInPlace(lo, mid, hi);
       return;
     }
-    lo = upper2(lo, mid, mid);
-    hi = lower2(mid, hi, mid - 1);
+  }
 
-    if (hi - mid <= mid - lo && hi - mid <= maxTempSlots) {
-      mergeHi(lo, mid, hi);
-    } else if (mid - lo <= maxTempSlots) {
-      mergeLo(lo, mid, hi);
-    } else {
-      mergeInPlace(lo, mid, hi);
-    }
+  @Override
+  void mergeInPlace(int lo, int mid, int hi) {
+    // use the temporary storage as soon as one side of the merge fits
+    doMerge(lo, mid, hi);
   }
 
   @Override
   public void sort(int from, int to) {
     checkRange(from, to);
-    if (to - from <= 1) {
-      return;
+    startEvent("TimSorter", from, to, maxTempSlots);
+    try {
+      if (to - from <= 1) {
+        return;
+      }
+      reset(from, to);
+      do {
+        ensureInvariants();
+        pushRunLen(nextRun());
+      } while (runEnd(0) < to);
+      exhaustStack();
+      assert runEnd(0) == to;
+    } finally {
+      endEvent();
     }
+  }
+
+  /** Prepare to sort <code>[from:to[</code> incrementally with
+   *  {@link #step(int)} or {@link #sortSome(long)}. The slice must not be
+   *  modified, and no other method of this sorter may be called, until the
+   *  sort is finished. */
+  public final void startSort(int from, int to) {
+    checkRange(from, to);
     reset(from, to);
+    runState = NO_RUN;
+    merging = -1;
+  }
+
+  /** Make progress on the sort that was started with
+   *  {@link #startSort(int, int)}, doing about <code>maxWork</code>
+   *  compares, swaps and writes, and return whether the slice is sorted. */
+  public final boolean step(int maxWork) {
+    if (maxWork <= 0) {
+      throw new IllegalArgumentException("maxWork must be > 0, got " + maxWork);
+    }
+    int work = 0;
+    while (work < maxWork) {
+      if (merging >= 0) {
+        if (mergeSaved < mergeLen) {
+          work += saveSome(maxWork - work);
+          continue;
+        }
+        // about one compare per written slot
+        final int maxWrites = (maxWork - work + 1) >>> 1;
+        work += 2 * (mergingLo ? mergeLoSome(maxWrites) : mergeHiSome(maxWrites));
+        if (mergingLo ? mergeI < mergeLen : mergeJ >= 0) {
+          return false;
+        }
+        popRun(merging);
+        merging = -1;
+        continue;
+      }
+      if (runState != NO_RUN) {
+        work += nextRunSome(maxWork - work);
+        continue;
+      }
+      int n = mergeIndex();
+      if (n < 0 && runEnd(0) < to) {
+        if (event != null) {
+          ++event.runs;
+        }
+        runState = RUN_STARTED;
+        continue;
+      } else if (n < 0 && stackSize > 1) {
+        n = 0;
+      } else if (n < 0) {
+        return true;
+      }
+      work += startMerge(n);
+    }
+    return runEnd(0) == to && stackSize <= 1;
+  }
+
+  /** Make progress on the sort that was started with
+   *  {@link #startSort(int, int)} for about <code>budgetNanos</code>
+   *  nanoseconds, and return whether the slice is sorted. */
+  public final boolean sortSome(long budgetNanos) {
+    final long start = System.nanoTime();
     do {
-      ensureInvariants();
-      pushRunLen(nextRun());
-    } while (runEnd(0) < to);
-    exhaustStack();
-    assert runEnd(0) == to;
+      if (step(STEP_WORK)) {
+        return true;
+      }
+    } while (System.nanoTime() - start < budgetNanos);
+    return false;
+  }
+
+  // start merging run n with run n+1 and return the amount of work done
+  int startMerge(int n) {
+    int lo = runBase(n + 1), mid = runBase(n), hi = runEnd(n);
+    if (compare(mid - 1, mid) <= 0) {
+      popRun(n);
+      return 1;
+    }
+    // galloping searches do about two compares per bit of the run lengths
+    final int work = 1 + 2 * (64 - Integer.numberOfLeadingZeros(mid - lo) - Integer.numberOfLeadingZeros(hi - mid));
+    lo = upper2(lo, mid, mid);
+    hi = lower2(mid, hi, mid - 1);
+    if (hi - mid <= mid - lo && hi - mid <= maxTempSlots) {
+      merging = n;
+      mergingLo = false;
+      mergeI = mid - 1;
+      mergeJ = hi - mid - 1;
+      mergeDest = hi - 1;
+      mergeBound = lo;
+      mergeLen = hi - mid;
+      mergeSaveFrom = mid;
+      mergeSaved = 0;
+      return work;
+    } else if (mid - lo <= maxTempSlots) {
+      merging = n;
+      mergingLo = true;
+      mergeI = 0;
+      mergeJ = mid;
+      mergeDest = lo;
+      mergeBound = hi;
+      mergeLen = mid - lo;
+      mergeSaveFrom = lo;
+      mergeSaved = 0;
+      return work;
+    } else {
+      // too large for the temporary storage, run it at once
+      doMerge(lo, mid, hi);
+      popRun(n);
+      return hi - lo;
+    }
+  }
+
+  // resumable version of nextRun that does about maxWork compares and swaps,
+  // and pushes the run once it is sorted
+  int nextRunSome(int maxWork) {
+    final int runBase = runEnd(0);
+    int work = 0;
+    if (runState == RUN_STARTED) {
+      if (runBase == to - 1) {
+        pushRunLen(1);
+        runState = NO_RUN;
+        return 1;
+      }
+      runState = compare(runBase, runBase + 1) > 0 ? RUN_DESCENDING : RUN_ASCENDING;
+      runScan = runBase + 2;
+      ++work;
+    }
+    if (runState == RUN_ASCENDING || runState == RUN_DESCENDING) {
+      final boolean descending = runState == RUN_DESCENDING;
+      for ( ; runScan < to; ++runScan) {
+        if (work >= maxWork) {
+          return work;
+        }
+        ++work;
+        if (descending != compare(runScan - 1, runScan) > 0) {
+          break;
+        }
+      }
+      runRevLo = runBase;
+      runRevHi = runScan - 1;
+      runHi = Math.max(runScan, Math.min(to, runBase + minRun));
+      runState = descending ? RUN_REVERSING : RUN_EXTENDING;
+    }
+    if (runState == RUN_REVERSING) {
+      while (runRevLo < runRevHi) {
+        if (work >= maxWork) {
+          return work;
+        }
+        ++work;
+        swap(runRevLo++, runRevHi--);
+      }
+      runState = RUN_EXTENDING;
+    }
+    // binary insertion of one slot at a time, at most minRun slots
+    while (runScan < runHi) {
+      if (work >= maxWork) {
+        return work;
+      }
+      // at most one compare per bit of the run length, and one swap per slot
+      final int len = runScan - runBase;
+      work += len + 32 - Integer.numberOfLeadingZeros(len);
+      binarySort(runBase, runScan + 1, runScan);
+      ++runScan;
+    }
+    pushRunLen(runHi - runBase);
+    runState = NO_RUN;
+    return work;
+  }
+
+  // save up to maxWork slots of the side of the merge that goes to the
+  // temporary storage
+  int saveSome(int maxWork) {
+    final int len = Math.min(maxWork, mergeLen - mergeSaved);
+    if (len == mergeLen) {
+      saveAll(mergeSaveFrom, len);
+    } else {
+      for (int i = mergeSaved, end = mergeSaved + len; i < end; ++i) {
+        save(mergeSaveFrom + i, i);
+      }
+    }
+    mergeSaved += len;
+    return len;
+  }
+
+  // resumable version of mergeLo that writes at most maxWork slots
+  int mergeLoSome(int maxWork) {
+    final int len1 = mergeLen, hi = mergeBound;
+    int i = mergeI, j = mergeJ, dest = mergeDest;
+    final int limit = dest + Math.min(maxWork, hi - dest);
+    for (int count = 0; dest < limit && i < len1; ) {
+      if (j >= hi || compareSaved(i, j) <= 0) {
+        restore(i++, dest++);
+        count = 0;
+      } else {
+        copy(j++, dest++);
+        if (++count >= MIN_GALLOP) {
+          // galloping, without writing more than limit - dest slots
+          final int next = lowerSaved3(j, Math.min(hi, j + limit - dest), i);
+          while (j < next) {
+            copy(j++, dest++);
+          }
+          count = 0;
+        }
+      }
+    }
+    final int work = dest - mergeDest;
+    mergeI = i;
+    mergeJ = j;
+    mergeDest = dest;
+    return work;
+  }
+
+  // resumable version of mergeHi that writes at most maxWork slots
+  int mergeHiSome(int maxWork) {
+    final int lo = mergeBound;
+    int i = mergeI, j = mergeJ, dest = mergeDest;
+    final int limit = dest - Math.min(maxWork, dest - lo + 1);
+    for (int count = 0; dest > limit && j >= 0; ) {
+      if (i < lo || compareSaved(j, i) >= 0) {
+        restore(j--, dest--);
+        count = 0;
+      } else {
+        copy(i--, dest--);
+        if (++count >= MIN_GALLOP) {
+          // galloping, without writing more than dest - limit slots
+          final int next = upperSaved3(Math.max(lo, i + 1 - (dest - limit)), i + 1, j);
+          while (i >= next) {
+            copy(i--, dest--);
+          }
+          count = 0;
+        }
+      }
+    }
+    final int work = mergeDest - dest;
+    mergeI = i;
+    mergeJ = j;
+    mergeDest = dest;
+    return work;
   }
 
   @Override
   void doRotate(int lo, int mid, int hi) {
     final int len1 = mid - lo;
     final int len2 = hi - mid;
-    if (len1 == len2) {
-      while (mid < hi) {
-        swap(lo++, mid++);
-      }
-    } else if (len2 < len1 && len2 <= maxTempSlots) {
+    if (len1 == len2 || Math.min(len1, len2) > maxTempSlots) {
+      blockSwapRotate(lo, mid, hi, maxTempSlots);
+    } else if (len2 < len1) {
+      recordTempSlots(len2);
       saveAll(mid, len2);
-      for (int i = lo + len1 - 1, j = hi - 1; i >= lo; --i, --j) {
+      for (int i = mid - 1, j = hi - 1; i >= lo; --i, --j) {
         copy(i, j);
       }
       for (int i = 0, j = lo; i < len2; ++i, ++j) {
         restore(i, j);
       }
-    } else if (len1 <= maxTempSlots) {
+    } else {
+      recordTempSlots(len1);
       saveAll(lo, len1);
       for (int i = mid, j = lo; i < hi; ++i, ++j) {
         copy(i, j);
@@ -224,10 +554,6 @@ public abstract class TimSorter extends Sorter {
       for (int i = 0, j = lo + len2; j < hi; ++i, ++j) {
         restore(i, j);
       }
-    } else {
-      reverse(lo, mid);
-      reverse(mid, hi);
-      reverse(lo, hi);
     }
   }
 
@@ -358,6 +684,10 @@ public abstract class TimSorter extends Sorter {
    *  into the temporary storage. */
   protected abstract void saveAll(int i, int len);
 
+  /** Save slot <code>i</code> at offset <code>j</code> of the temporary
+   *  storage. {@link #step(int)} uses it to save large runs in chunks. */
+  protected abstract void save(int i, int j);
+
   /** Restore element <code>j</code> from the temporary storage into slot <code>i</code>. */
   protected abstract void restore(int i, int j);
 
@@ -0,0 +1,79 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+import net.jpountz.sorts.AbstractSortTest.Strategy;
+
+public abstract class AbstractBigSortTest extends RandomizedTest {
+
+  private final boolean stable;
+
+  public AbstractBigSortTest(boolean stable) {
+    this.stable = stable;
+  }
+
+  /** Return a sorter whose slot <code>offset + i</code> is
+   *  <code>arr[i]</code>. */
+  public abstract BigSorter newSorter(Entry[] arr, long offset);
+
+  public void test(Entry[] arr) {
+    final Entry[] toSort = arr.clone();
+    // make sure that slots overflow ints
+    final long offset;
+    switch (randomInt(2)) {
+    case 0:
+      offset = 0;
+      break;
+    case 1:
+      offset = Integer.MAX_VALUE - randomInt(arr.length);
+      break;
+    default:
+      offset = randomLongBetween(1L << 31, 1L << 50);
+      break;
+    }
+    newSorter(toSort, offset).sort(offset, offset + arr.length);
+    final Entry[] expected = arr.clone();
+    Arrays.sort(expected);
+    for (int i = 0; i < arr.length; ++i) {
+      assertEquals(expected[i].value, toSort[i].value);
+      if (stable) {
+        assertEquals(expected[i].ord, toSort[i].ord);
+      }
+    }
+  }
+
+  private static long randomLongBetween(long min, long max) {
+    return min + (long) (randomDouble() * (max - min));
+  }
+
+  @Test
+  @Repeat(iterations=20)
+  public void testSort() {
+    final Strategy strategy = randomFrom(Strategy.values());
+    final Entry[] arr = new Entry[randomInt(20000)];
+    for (int i = 0; i < arr.length; ++i) {
+      strategy.set(arr, i);
+    }
+    test(arr);
+  }
+
+}
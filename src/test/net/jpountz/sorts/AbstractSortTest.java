@@ -116,6 +116,18 @@ public abstract class AbstractSortTest extends RandomizedTest {
     test(arr);
   }
 
+  /** Create an array whose slices <code>[0:mid[</code> and
+   *  <code>[mid:length[</code> are sorted. */
+  public Entry[] twoRuns(Strategy strategy, int length, int mid) {
+    final Entry[] arr = new Entry[length];
+    for (int i = 0; i < arr.length; ++i) {
+      strategy.set(arr, i);
+    }
+    Arrays.sort(arr, 0, mid);
+    Arrays.sort(arr, mid, length);
+    return arr;
+  }
+
   public void test(Strategy strategy) {
     test(strategy, randomInt(20000));
   }
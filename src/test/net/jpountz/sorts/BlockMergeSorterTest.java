@@ -0,0 +1,48 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class BlockMergeSorterTest extends AbstractSortTest {
+
+  public BlockMergeSorterTest() {
+    super(true);
+  }
+
+  @Override
+  public Sorter newSorter(Entry[] arr) {
+    return new ArrayBlockMergeSorter<Entry>(arr);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testNotEnoughKeys() {
+    // not enough distinct values to use a full-size buffer
+    final int length = randomIntBetween(1000, 20000);
+    final int cardinality = randomIntBetween(4, (int) Math.sqrt(length));
+    final Entry[] arr = new Entry[length];
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = new Entry(randomInt(cardinality - 1), i);
+    }
+    test(arr);
+  }
+
+}
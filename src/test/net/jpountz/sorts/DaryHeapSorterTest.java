@@ -0,0 +1,145 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+
+@RunWith(RandomizedRunner.class)
+public class DaryHeapSorterTest extends AbstractSortTest {
+
+  public DaryHeapSorterTest() {
+    super(false);
+  }
+
+  @Override
+  public Sorter newSorter(Entry[] arr) {
+    return new ArrayDaryHeapSorter<Entry>(arr, 1 << randomIntBetween(1, 6));
+  }
+
+  @Test
+  public void testIllegalArity() {
+    for (int arity : new int[] {-1, 0, 1, 3, 12, 128}) {
+      try {
+        new ArrayDaryHeapSorter<Entry>(new Entry[0], arity);
+        fail();
+      } catch (IllegalArgumentException e) {
+        // ok
+      }
+    }
+  }
+
+  @Test
+  public void testAlignedSiblings() {
+    final int from = randomIntBetween(0, 1000);
+    for (int logArity = 2; logArity <= 6; ++logArity) {
+      final int arity = 1 << logArity;
+      for (int i = from; i < from + 10000; ++i) {
+        final int child = Sorter.heapChild(from, i, logArity);
+        assertEquals(0, (child - from) % arity);
+        for (int k = child; k < child + arity; ++k) {
+          assertEquals(i, Sorter.heapParent(from, k, logArity));
+        }
+      }
+      for (int i = from + arity; i < from + 10000; ++i) {
+        assertEquals(Sorter.heapParent(from, i, logArity), Sorter.heapAncestor(from, i, logArity, 1));
+        final int parent = Sorter.heapParent(from, i, logArity);
+        if (parent - from >= arity) {
+          assertEquals(Sorter.heapParent(from, parent, logArity), Sorter.heapAncestor(from, i, logArity, 2));
+        }
+      }
+    }
+  }
+
+  /** A heap whose slots are not materialized: slot <code>i</code> holds
+   *  <code>from - i</code> unless it has been swapped, so that
+   *  <code>[from:to[</code> is a valid max-heap of any arity. */
+  private static class SparseHeap extends Sorter {
+
+    final int from;
+    final Map<Integer, Integer> values = new HashMap<Integer, Integer>();
+
+    SparseHeap(int from) {
+      this.from = from;
+    }
+
+    int get(int i) {
+      final Integer v = values.get(i);
+      return v == null ? from - i : v;
+    }
+
+    @Override
+    protected int compare(int i, int j) {
+      final int v1 = get(i), v2 = get(j);
+      return v1 < v2 ? -1 : v1 == v2 ? 0 : 1;
+    }
+
+    @Override
+    protected void swap(int i, int j) {
+      final int tmp = get(i);
+      values.put(i, get(j));
+      values.put(j, tmp);
+    }
+
+    @Override
+    public void sort(int from, int to) {
+      throw new UnsupportedOperationException();
+    }
+
+  }
+
+  @Test
+  public void testSiftDownNearMaxValue() {
+    final int from = randomIntBetween(1, 1000);
+    final int to = Integer.MAX_VALUE - randomInt(10);
+    for (int logArity = 1; logArity <= 6; ++logArity) {
+      final SparseHeap heap = new SparseHeap(from);
+      // the least value, which goes down to a leaf
+      heap.values.put(from, Integer.MIN_VALUE);
+      if (logArity == 1) {
+        heap.siftDown(from, from, to);
+      } else {
+        heap.siftDown(from, from, to, logArity);
+      }
+      int leaf = -1;
+      for (Map.Entry<Integer, Integer> entry : heap.values.entrySet()) {
+        if (entry.getValue() == Integer.MIN_VALUE) {
+          leaf = entry.getKey();
+        }
+      }
+      assertTrue(leaf >= from && leaf < to);
+      // leaves are the slots whose first child would be out of the heap
+      if (logArity == 1) {
+        assertTrue(((long) leaf - from) * 2 + 1 >= (long) to - from);
+      } else {
+        assertTrue(((long) leaf - from + 1) * (1 << logArity) >= (long) to - from);
+      }
+      // the heap property still holds on the path to the leaf
+      for (int i = leaf; i != from; ) {
+        final int parent = logArity == 1
+            ? Sorter.heapParent(from, i)
+            : Sorter.heapParent(from, i, logArity);
+        assertTrue(heap.compare(parent, i) >= 0);
+        i = parent;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,142 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+
+@RunWith(RandomizedRunner.class)
+public class DistributionTest extends RandomizedTest {
+
+  @Test
+  public void testReproducible() {
+    final int length = randomIntBetween(0, 5000);
+    final long seed = randomLong();
+    for (Distribution distribution : Distribution.values()) {
+      assertArrayEquals(distribution.toString(), distribution.generate(length, seed), distribution.generate(length, seed));
+    }
+  }
+
+  private static boolean isSorted(int[] arr, int from, int to) {
+    for (int i = from + 1; i < to; ++i) {
+      if (arr[i - 1] > arr[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Test
+  public void testShapes() {
+    final int length = randomIntBetween(1000, 5000);
+    final long seed = randomLong();
+
+    assertTrue(isSorted(Distribution.ASCENDING.generate(length, seed), 0, length));
+
+    final int[] descending = Distribution.STRICTLY_DESCENDING.generate(length, seed);
+    for (int i = 1; i < length; ++i) {
+      assertTrue(descending[i - 1] > descending[i]);
+    }
+
+    final int[] organPipe = Distribution.ORGAN_PIPE.generate(length, seed);
+    assertTrue(isSorted(organPipe, 0, (length + 1) / 2));
+    for (int i = 0; i < length; ++i) {
+      assertEquals(organPipe[i], organPipe[length - 1 - i]);
+    }
+
+    final int[] sawtooth = Distribution.SAWTOOTH.generate(length, seed);
+    int runs = 1;
+    for (int i = 1; i < length; ++i) {
+      if (sawtooth[i - 1] > sawtooth[i]) {
+        ++runs;
+      }
+    }
+    assertTrue(runs > 1 && runs <= length / 1000 + 2);
+
+    final Set<Integer> unique = new HashSet<Integer>();
+    for (int v : Distribution.FEW_UNIQUE.generate(length, seed)) {
+      unique.add(v);
+    }
+    assertTrue(unique.size() <= 4);
+
+    final int[] zipf = Distribution.ZIPF.generate(length, seed);
+    int zeros = 0, nines = 0;
+    for (int v : zipf) {
+      assertTrue(v >= 0 && v < 10000);
+      if (v == 0) {
+        ++zeros;
+      } else if (v == 9) {
+        ++nines;
+      }
+    }
+    assertTrue(zeros > nines);
+
+    // values are close to their sorted position, except for noise
+    final int[] kSorted = Distribution.K_SORTED.generate(length, seed);
+    int displaced = 0;
+    for (int i = 0; i < length; ++i) {
+      if (Math.abs(kSorted[i] - i) >= 10) {
+        ++displaced;
+      }
+    }
+    assertTrue(displaced <= length / 100);
+  }
+
+  private static long comparisons;
+
+  private static final class Key implements Comparable<Key> {
+
+    final int value;
+
+    Key(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public int compareTo(Key other) {
+      ++comparisons;
+      return value < other.value ? -1 : value == other.value ? 0 : 1;
+    }
+
+  }
+
+  private static long introSortComparisons(int[] values) {
+    final Key[] keys = new Key[values.length];
+    for (int i = 0; i < values.length; ++i) {
+      keys[i] = new Key(values[i]);
+    }
+    comparisons = 0;
+    new ArrayIntroSorter<Key>(keys).sort(0, keys.length);
+    for (int i = 1; i < keys.length; ++i) {
+      assertTrue(keys[i - 1].value <= keys[i].value);
+    }
+    return comparisons;
+  }
+
+  @Test
+  public void testQuicksortKiller() {
+    final int length = randomIntBetween(10000, 20000);
+    final long killer = introSortComparisons(Distribution.QUICKSORT_KILLER.generate(length, randomLong()));
+    final long random = introSortComparisons(Distribution.RANDOM.generate(length, randomLong()));
+    assertTrue(killer + " <= " + random, killer > random * 13 / 10);
+  }
+
+}
@@ -14,9 +14,11 @@ package net.jpountz.sorts;
  * limitations under the License.
  */
 
+import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
 
 @RunWith(RandomizedRunner.class)
 public class HeapSorterTest extends AbstractSortTest {
@@ -30,4 +32,26 @@ public class HeapSorterTest extends AbstractSortTest {
     return new ArrayHeapSorter<Entry>(arr);
   }
 
+  @Test
+  @Repeat(iterations=10)
+  public void testComparisons() {
+    final Entry[] arr = new Entry[randomIntBetween(2, 20000)];
+    for (int i = 0; i < arr.length; ++i) {
+      Strategy.RANDOM.set(arr, i);
+    }
+    final Entry[] toSort = arr.clone();
+    final long[] comparisons = new long[1];
+    new ArrayHeapSorter<Entry>(toSort) {
+      @Override
+      protected int compare(int i, int j) {
+        ++comparisons[0];
+        return super.compare(i, j);
+      }
+    }.sort(0, toSort.length);
+    assertSorted(arr, toSort);
+    // bottom-up heapsort needs about n*log2(n) comparisons, vs. 2*n*log2(n)
+    final double log2 = Math.log(arr.length) / Math.log(2);
+    assertTrue(comparisons[0] + " comparisons", comparisons[0] <= 1.2 * arr.length * log2 + 2 * arr.length);
+  }
+
 }
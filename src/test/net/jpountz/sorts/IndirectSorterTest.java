@@ -0,0 +1,108 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class IndirectSorterTest extends RandomizedTest {
+
+  private static Entry[] randomEntries() {
+    final Entry[] arr = new Entry[randomInt(20000)];
+    final int max = randomFrom(new Integer[] {5, 1000, Integer.MAX_VALUE});
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = new Entry(randomBoolean() ? randomInt(max) : -randomInt(max), i);
+    }
+    return arr;
+  }
+
+  private static void assertSorted(Entry[] arr, int from, int[] ids, boolean stable) {
+    final Entry[] expected = Arrays.copyOfRange(arr, from, from + ids.length);
+    Arrays.sort(expected);
+    final boolean[] seen = new boolean[arr.length];
+    for (int i = 0; i < ids.length; ++i) {
+      assertFalse(seen[ids[i]]);
+      seen[ids[i]] = true;
+      assertEquals(expected[i].value, arr[ids[i]].value);
+      if (stable) {
+        assertEquals(expected[i].ord, arr[ids[i]].ord);
+      }
+    }
+  }
+
+  private void test(boolean stable) {
+    final Entry[] arr = randomEntries();
+    final Entry[] copy = arr.clone();
+    final int from = randomInt(arr.length);
+    final int to = randomIntBetween(from, arr.length);
+    final int[] ids = new ArrayIndirectSorter<Entry>(arr, stable).sort(from, to);
+    assertArrayEquals(copy, arr);
+    assertSorted(arr, from, ids, stable);
+  }
+
+  private void testPrefixes(boolean stable) {
+    final Entry[] arr = randomEntries();
+    final int shift = randomInt(31);
+    final IndirectSorter sorter = new PrefixIndirectSorter(stable) {
+      @Override
+      protected int compare(int a, int b) {
+        return arr[a].compareTo(arr[b]);
+      }
+      @Override
+      protected long prefix(int id) {
+        return arr[id].value >> shift;
+      }
+    };
+    // the sorter is reused across slices of different lengths
+    for (int iter = 0; iter < 3; ++iter) {
+      final int from = randomInt(arr.length);
+      final int to = randomIntBetween(from, arr.length);
+      final int[] ids = sorter.sort(from, to);
+      assertSorted(arr, from, ids, stable);
+    }
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testStable() {
+    test(true);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testUnstable() {
+    test(false);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testStablePrefixes() {
+    testPrefixes(true);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testUnstablePrefixes() {
+    testPrefixes(false);
+  }
+
+}
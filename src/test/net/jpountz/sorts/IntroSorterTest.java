@@ -14,9 +14,13 @@ package net.jpountz.sorts;
  * limitations under the License.
  */
 
+import java.util.Arrays;
+
+import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
 
 @RunWith(RandomizedRunner.class)
 public class IntroSorterTest extends AbstractSortTest {
@@ -30,4 +34,73 @@ public class IntroSorterTest extends AbstractSortTest {
     return new ArrayIntroSorter<Entry>(arr);
   }
 
+  @Test
+  @Repeat(iterations=10)
+  public void testIntArray() {
+    final int[] arr = new int[randomInt(20000)];
+    final int max = randomFrom(new Integer[] {1, 10, Integer.MAX_VALUE});
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = randomBoolean() ? randomInt(max) : -randomInt(max);
+    }
+    final int[] expected = arr.clone();
+    Arrays.sort(expected);
+    new IntArrayIntroSorter(arr).sort(0, arr.length);
+    assertArrayEquals(expected, arr);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testHeapArityFallback() {
+    final Strategy strategy = randomFrom(Strategy.values());
+    final Entry[] arr = new Entry[randomInt(20000)];
+    for (int i = 0; i < arr.length; ++i) {
+      strategy.set(arr, i);
+    }
+    final Entry[] toSort = arr.clone();
+    new ArrayIntroSorter<Entry>(toSort, 1 << randomIntBetween(1, 4)).fallbackSort(0, toSort.length);
+    assertSorted(arr, toSort);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testSortedIterator() {
+    final Strategy strategy = randomFrom(Strategy.values());
+    final Entry[] arr = new Entry[randomInt(20000)];
+    for (int i = 0; i < arr.length; ++i) {
+      strategy.set(arr, i);
+    }
+    final Entry[] expected = arr.clone();
+    Arrays.sort(expected);
+    final int from = randomInt(arr.length);
+    final Entry[] toSort = new Entry[from + arr.length];
+    System.arraycopy(arr, 0, toSort, from, arr.length);
+    final IntroSorter.SortedIterator it = new ArrayIntroSorter<Entry>(toSort).sortedIterator(from, toSort.length);
+    final int k = randomBoolean() ? randomInt(100) : arr.length;
+    for (int i = 0; i < k && i < arr.length; ++i) {
+      assertTrue(it.hasNext());
+      final int slot = it.next();
+      assertEquals(from + i, slot);
+      assertEquals(expected[i].value, toSort[slot].value);
+    }
+    if (k >= arr.length) {
+      assertFalse(it.hasNext());
+    }
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testIntArraySortedIterator() {
+    final int[] arr = new int[randomInt(20000)];
+    final int max = randomFrom(new Integer[] {1, 10, Integer.MAX_VALUE});
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = randomInt(max);
+    }
+    final int[] expected = arr.clone();
+    Arrays.sort(expected);
+    final IntroSorter.SortedIterator it = new IntArrayIntroSorter(arr).sortedIterator(0, arr.length);
+    for (int i = 0; it.hasNext(); ++i) {
+      assertEquals(expected[i], arr[it.next()]);
+    }
+  }
+
 }
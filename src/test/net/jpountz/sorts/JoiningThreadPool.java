@@ -0,0 +1,60 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+
+/** A fixed thread pool whose threads are joined on shutdown, so that
+ *  RandomizedRunner never sees them as leaked threads. */
+public class JoiningThreadPool extends ThreadPoolExecutor {
+
+  private final List<Thread> threads;
+
+  public JoiningThreadPool(int size) {
+    this(size, new ArrayList<Thread>());
+  }
+
+  private JoiningThreadPool(int size, final List<Thread> threads) {
+    super(size, size, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        final Thread thread = new Thread(r);
+        synchronized (threads) {
+          threads.add(thread);
+        }
+        return thread;
+      }
+    });
+    this.threads = threads;
+  }
+
+  /** Shut this pool down and wait for all its threads to die. */
+  public void shutdownAndJoin() throws InterruptedException {
+    shutdown();
+    Assert.assertTrue(awaitTermination(1, TimeUnit.MINUTES));
+    synchronized (threads) {
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,176 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class KeyEncoderTest extends RandomizedTest {
+
+  private static final double[] DOUBLES = {Double.NEGATIVE_INFINITY, -Double.MAX_VALUE, -1, -Double.MIN_VALUE, -0d, 0d, Double.MIN_VALUE, 1, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NaN, Double.longBitsToDouble(0x7ff0000000000001L)};
+
+  private static int signum(int cmp) {
+    return cmp < 0 ? -1 : cmp == 0 ? 0 : 1;
+  }
+
+  // lexicographic comparison of unsigned bytes
+  private static int compareBytes(byte[] a, byte[] b) {
+    for (int i = 0; i < Math.min(a.length, b.length); ++i) {
+      final int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return a.length - b.length;
+  }
+
+  @Test
+  @Repeat(iterations=100)
+  public void testInts() {
+    final int a = randomBoolean() ? randomInt() : randomIntBetween(-5, 5);
+    final int b = randomBoolean() ? randomInt() : randomIntBetween(-5, 5);
+    final int expected = signum(Integer.valueOf(a).compareTo(b));
+    assertEquals(expected, signum(KeyEncoder.compareUnsigned(KeyEncoder.encodeInt(a), KeyEncoder.encodeInt(b))));
+    final byte[] ba = new byte[4], bb = new byte[4];
+    KeyEncoder.writeInt(KeyEncoder.encodeInt(a), ba, 0);
+    KeyEncoder.writeInt(KeyEncoder.encodeInt(b), bb, 0);
+    assertEquals(expected, signum(compareBytes(ba, bb)));
+  }
+
+  @Test
+  @Repeat(iterations=100)
+  public void testLongs() {
+    final long a = randomBoolean() ? randomLong() : randomIntBetween(-5, 5);
+    final long b = randomBoolean() ? randomLong() : randomIntBetween(-5, 5);
+    final int expected = signum(Long.valueOf(a).compareTo(b));
+    assertEquals(expected, signum(KeyEncoder.compareUnsigned(KeyEncoder.encodeLong(a), KeyEncoder.encodeLong(b))));
+    final byte[] ba = new byte[8], bb = new byte[8];
+    KeyEncoder.writeLong(KeyEncoder.encodeLong(a), ba, 0);
+    KeyEncoder.writeLong(KeyEncoder.encodeLong(b), bb, 0);
+    assertEquals(expected, signum(compareBytes(ba, bb)));
+  }
+
+  @Test
+  public void testBooleans() {
+    assertTrue(KeyEncoder.compareUnsigned(KeyEncoder.encodeBoolean(false), KeyEncoder.encodeBoolean(true)) < 0);
+  }
+
+  @Test
+  @Repeat(iterations=100)
+  public void testFloatsAndDoubles() {
+    final double a = randomBoolean() ? DOUBLES[randomInt(DOUBLES.length - 1)] : (randomDouble() - 0.5) * randomInt(1000);
+    final double b = randomBoolean() ? DOUBLES[randomInt(DOUBLES.length - 1)] : (randomDouble() - 0.5) * randomInt(1000);
+    assertEquals(signum(Double.compare(a, b)), signum(KeyEncoder.compareUnsigned(KeyEncoder.encodeDouble(a), KeyEncoder.encodeDouble(b))));
+    assertEquals(signum(Float.compare((float) a, (float) b)), signum(KeyEncoder.compareUnsigned(KeyEncoder.encodeFloat((float) a), KeyEncoder.encodeFloat((float) b))));
+  }
+
+  @Test
+  @Repeat(iterations=100)
+  public void testDecimals() {
+    final int scale = randomInt(4);
+    final BigDecimal a = BigDecimal.valueOf(randomIntBetween(-10000, 10000), randomInt(scale));
+    final BigDecimal b = BigDecimal.valueOf(randomIntBetween(-10000, 10000), randomInt(scale));
+    assertEquals(signum(a.compareTo(b)), signum(KeyEncoder.compareUnsigned(KeyEncoder.encodeDecimal(a, scale), KeyEncoder.encodeDecimal(b, scale))));
+  }
+
+  @Test(expected=ArithmeticException.class)
+  public void testDecimalScaleTooSmall() {
+    KeyEncoder.encodeDecimal(new BigDecimal("1.25"), 1);
+  }
+
+  @Test
+  public void testDecimalLongRange() {
+    final BigDecimal max = new BigDecimal(BigInteger.valueOf(Long.MAX_VALUE), 2);
+    final BigDecimal min = new BigDecimal(BigInteger.valueOf(Long.MIN_VALUE), 2);
+    assertEquals(KeyEncoder.encodeLong(Long.MAX_VALUE), KeyEncoder.encodeDecimal(max, 2));
+    assertEquals(KeyEncoder.encodeLong(Long.MIN_VALUE), KeyEncoder.encodeDecimal(min, 2));
+    for (BigDecimal v : new BigDecimal[] {max.add(new BigDecimal("0.01")), min.subtract(new BigDecimal("0.01"))}) {
+      try {
+        KeyEncoder.encodeDecimal(v, 2);
+        fail();
+      } catch (ArithmeticException e) {
+        // expected
+      }
+    }
+  }
+
+  private static String randomString() {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = randomInt(12); i > 0; --i) {
+      switch (randomInt(4)) {
+        case 0:
+          sb.append((char) randomInt(0x7F));
+          break;
+        case 1:
+          sb.append((char) randomIntBetween(0x80, 0x7FF));
+          break;
+        case 2:
+          sb.append((char) randomIntBetween(0x800, 0xFFFF));
+          break;
+        case 3:
+          sb.appendCodePoint(randomIntBetween(0x10000, Character.MAX_CODE_POINT));
+          break;
+        default:
+          sb.append(randomFrom(new Character[] {Character.MIN_HIGH_SURROGATE, Character.MAX_LOW_SURROGATE}));
+          break;
+      }
+    }
+    return sb.toString();
+  }
+
+  @Test
+  @Repeat(iterations=100)
+  public void testUtf8() {
+    final String a = randomString();
+    final String b = randomString();
+    final byte[] ua = KeyEncoder.utf8(a);
+    final byte[] ub = KeyEncoder.utf8(b);
+    assertEquals(KeyEncoder.bytesPrefix(ua, 0, ua.length), KeyEncoder.utf8Prefix(a));
+    assertEquals(KeyEncoder.bytesPrefix(ub, 0, ub.length), KeyEncoder.utf8Prefix(b));
+    final int cmp = KeyEncoder.compareUnsigned(KeyEncoder.utf8Prefix(a), KeyEncoder.utf8Prefix(b));
+    if (cmp != 0) {
+      assertEquals(signum(compareBytes(ua, ub)), signum(cmp));
+    }
+    // UTF-8 bytes sort like code points
+    final int[] ca = new int[a.codePointCount(0, a.length())];
+    final int[] cb = new int[b.codePointCount(0, b.length())];
+    for (int i = 0, j = 0; i < a.length(); i += Character.charCount(ca[j++])) {
+      ca[j] = a.codePointAt(i);
+    }
+    for (int i = 0, j = 0; i < b.length(); i += Character.charCount(cb[j++])) {
+      cb[j] = b.codePointAt(i);
+    }
+    int expected = ca.length - cb.length;
+    for (int i = 0; i < Math.min(ca.length, cb.length); ++i) {
+      if (ca[i] != cb[i]) {
+        expected = ca[i] - cb[i];
+        break;
+      }
+    }
+    if (a.indexOf(Character.MIN_HIGH_SURROGATE) < 0 && a.indexOf(Character.MAX_LOW_SURROGATE) < 0
+        && b.indexOf(Character.MIN_HIGH_SURROGATE) < 0 && b.indexOf(Character.MAX_LOW_SURROGATE) < 0) {
+      assertEquals(signum(expected), signum(compareBytes(ua, ub)));
+    }
+  }
+
+}
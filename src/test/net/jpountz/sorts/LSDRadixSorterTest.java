@@ -0,0 +1,95 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class LSDRadixSorterTest extends RandomizedTest {
+
+  @Test
+  @Repeat(iterations=20)
+  public void testInts() {
+    final int[] arr = new int[randomInt(20000)];
+    final int base = randomInt();
+    final int max = randomFrom(new Integer[] {1, 10, 1000, 1 << 20, Integer.MAX_VALUE});
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = base + (randomBoolean() ? randomInt(max) : -randomInt(max));
+    }
+    final int from = randomInt(arr.length);
+    final int to = randomIntBetween(from, arr.length);
+    final int[] expected = arr.clone();
+    Arrays.sort(expected, from, to);
+    if (randomBoolean()) {
+      LSDRadixSorter.sort(arr, from, to);
+    } else {
+      LSDRadixSorter.sort(arr, from, to, new int[to - from + randomInt(10)]);
+    }
+    assertArrayEquals(expected, arr);
+  }
+
+  @Test
+  @Repeat(iterations=20)
+  public void testLongs() {
+    final long[] arr = new long[randomInt(20000)];
+    final long base = randomLong();
+    final int max = randomFrom(new Integer[] {1, 10, 1000, 1 << 20, Integer.MAX_VALUE});
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = rarely() ? randomLong() : base + (randomBoolean() ? randomInt(max) : -randomInt(max));
+    }
+    final int from = randomInt(arr.length);
+    final int to = randomIntBetween(from, arr.length);
+    final long[] expected = arr.clone();
+    Arrays.sort(expected, from, to);
+    if (randomBoolean()) {
+      LSDRadixSorter.sort(arr, from, to);
+    } else {
+      LSDRadixSorter.sort(arr, from, to, new long[to - from + randomInt(10)]);
+    }
+    assertArrayEquals(expected, arr);
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testScratchTooSmall() {
+    LSDRadixSorter.sort(new long[100], 10, 90, new long[79]);
+  }
+
+  @Test
+  public void testInvalidRange() {
+    final int[][] ranges = new int[][] {{50, 40}, {-1, 10}, {10, 101}};
+    for (int[] range : ranges) {
+      try {
+        LSDRadixSorter.sort(new int[100], range[0], range[1]);
+        fail();
+      } catch (IllegalArgumentException e) {
+        // ok
+      }
+      try {
+        LSDRadixSorter.sort(new long[100], range[0], range[1]);
+        fail();
+      } catch (IllegalArgumentException e) {
+        // ok
+      }
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+
+@RunWith(RandomizedRunner.class)
+public class ListSorterTest extends RandomizedTest {
+
+  private static final Comparator<Entry> COMPARATOR = new Comparator<Entry>() {
+    @Override
+    public int compare(Entry e1, Entry e2) {
+      return e1.compareTo(e2);
+    }
+  };
+
+  private List<Entry> randomList() {
+    final int length = randomInt(10000);
+    final int cardinality = randomBoolean() ? 10 : Integer.MAX_VALUE;
+    final List<Entry> list = new ArrayList<Entry>(length);
+    for (int i = 0; i < length; ++i) {
+      list.add(new Entry(randomInt(cardinality - 1), i));
+    }
+    if (randomBoolean()) {
+      // partially sorted
+      Collections.sort(list.subList(0, length / 2));
+    }
+    return list;
+  }
+
+  private static void assertSorted(List<Entry> original, List<Entry> sorted, boolean stable) {
+    final List<Entry> expected = new ArrayList<Entry>(original);
+    Collections.sort(expected);
+    assertEquals(expected.size(), sorted.size());
+    for (int i = 0; i < expected.size(); ++i) {
+      assertEquals(expected.get(i).value, sorted.get(i).value);
+      if (stable) {
+        assertEquals(expected.get(i).ord, sorted.get(i).ord);
+      }
+    }
+  }
+
+  @Test
+  public void testSort() {
+    final List<Entry> list = randomList();
+    final List<Entry> original = new ArrayList<Entry>(list);
+    ListSorter.sort(list, COMPARATOR);
+    assertSorted(original, list, false);
+  }
+
+  @Test
+  public void testStableSort() {
+    final List<Entry> list = randomList();
+    final List<Entry> original = new ArrayList<Entry>(list);
+    if (randomBoolean()) {
+      ListSorter.stableSort(list, COMPARATOR);
+    } else {
+      ListSorter.stableSort(list, COMPARATOR, randomInt(list.size()));
+    }
+    assertSorted(original, list, true);
+  }
+
+  @Test
+  public void testSubList() {
+    final List<Entry> list = randomList();
+    final int from = randomInt(list.size()), to = randomIntBetween(from, list.size());
+    final List<Entry> original = new ArrayList<Entry>(list);
+    ListSorter.timSorter(list, COMPARATOR, randomInt(list.size())).sort(from, to);
+    assertSorted(original.subList(from, to), list.subList(from, to), true);
+    assertEquals(original.subList(0, from), list.subList(0, from));
+    assertEquals(original.subList(to, list.size()), list.subList(to, list.size()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotRandomAccess() {
+    ListSorter.sort(new LinkedList<Entry>(), COMPARATOR);
+  }
+
+}
@@ -0,0 +1,117 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class MSDRadixSorterTest extends RandomizedTest {
+
+
+  private static final Comparator<byte[]> COMPARATOR = new Comparator<byte[]>() {
+    @Override
+    public int compare(byte[] a, byte[] b) {
+      for (int i = 0; i < Math.min(a.length, b.length); ++i) {
+        final int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+        if (cmp != 0) {
+          return cmp;
+        }
+      }
+      return a.length - b.length;
+    }
+  };
+
+  private void test(int length, boolean parallel) throws InterruptedException {
+    final byte[][] arr = new byte[length][];
+    final int maxLength = randomFrom(new Integer[] {1, 3, 10, 30});
+    final int alphabet = randomFrom(new Integer[] {2, 10, 256});
+    final byte[] prefix = new byte[randomInt(maxLength)];
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = Arrays.copyOf(prefix, randomIntBetween(rarely() ? 0 : prefix.length, maxLength));
+      for (int j = prefix.length; j < arr[i].length; ++j) {
+        arr[i][j] = (byte) randomInt(alphabet - 1);
+      }
+    }
+    final int from = randomInt(arr.length);
+    final int to = randomIntBetween(from, arr.length);
+    final byte[][] expected = arr.clone();
+    Arrays.sort(expected, from, to, COMPARATOR);
+    final MSDRadixSorter sorter = new BytesArrayMSDRadixSorter(arr, randomBoolean() ? maxLength : Integer.MAX_VALUE);
+    if (parallel) {
+      final JoiningThreadPool executor = new JoiningThreadPool(randomIntBetween(1, 4));
+      try {
+        sorter.sort(from, to, executor, randomIntBetween(1, 8));
+      } finally {
+        executor.shutdownAndJoin();
+      }
+    } else {
+      sorter.sort(from, to);
+    }
+    for (int i = 0; i < arr.length; ++i) {
+      assertArrayEquals(expected[i], arr[i]);
+    }
+  }
+
+  @Test
+  @Repeat(iterations=20)
+  public void testSort() throws InterruptedException {
+    test(randomInt(20000), false);
+  }
+
+  @Test
+  @Repeat(iterations=5)
+  public void testParallelSort() throws InterruptedException {
+    test(randomIntBetween(ParallelTasks.PARALLEL_THRESHOLD, 2 * ParallelTasks.PARALLEL_THRESHOLD), true);
+  }
+
+  @Test
+  @Repeat(iterations=5)
+  public void testParallelSortSkewedFirstByte() throws InterruptedException {
+    // almost all keys share their first byte, so that a single bucket needs
+    // to be sorted in parallel on the second byte
+    final byte[][] arr = new byte[randomIntBetween(4 * ParallelTasks.PARALLEL_THRESHOLD, 8 * ParallelTasks.PARALLEL_THRESHOLD)][];
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = new byte[randomIntBetween(1, 4)];
+      arr[i][0] = (byte) (randomInt(99) == 0 ? 0x12 : 0x34);
+      for (int j = 1; j < arr[i].length; ++j) {
+        arr[i][j] = (byte) randomInt(255);
+      }
+    }
+    final byte[][] expected = arr.clone();
+    Arrays.sort(expected, COMPARATOR);
+    final int parallelism = randomIntBetween(2, 8);
+    final JoiningThreadPool executor = new JoiningThreadPool(randomIntBetween(1, 4));
+    try {
+      new BytesArrayMSDRadixSorter(arr, 4).sort(0, arr.length, executor, parallelism);
+    } finally {
+      executor.shutdownAndJoin();
+    }
+    for (int i = 0; i < arr.length; ++i) {
+      assertArrayEquals(expected[i], arr[i]);
+    }
+    // one histogram task per chunk for the first byte and at least another
+    // one for the large bucket
+    assertTrue(executor.getCompletedTaskCount() > 2 * parallelism);
+  }
+
+}
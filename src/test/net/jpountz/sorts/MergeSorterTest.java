@@ -14,9 +14,13 @@ package net.jpountz.sorts;
  * limitations under the License.
  */
 
+import java.util.Arrays;
+
+import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
 
 @RunWith(RandomizedRunner.class)
 public class MergeSorterTest extends AbstractSortTest {
@@ -30,4 +34,79 @@ public class MergeSorterTest extends AbstractSortTest {
     return new ArrayMergeSorter<Entry>(arr, randomInt(arr.length));
   }
 
+  @Test
+  @Repeat(iterations=10)
+  public void testIntArray() {
+    final int[] arr = new int[randomInt(20000)];
+    final int max = randomBoolean() ? 10 : Integer.MAX_VALUE;
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = randomBoolean() ? randomInt(max) : -randomInt(max);
+    }
+    final int[] expected = arr.clone();
+    Arrays.sort(expected);
+    new IntArrayMergeSorter(arr, randomInt(arr.length)).sort(0, arr.length);
+    assertArrayEquals(expected, arr);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testMerge() {
+    final int length = randomInt(20000);
+    final int mid = rarely() ? length : randomInt(length);
+    final Entry[] arr = twoRuns(randomFrom(Strategy.values()), length, mid);
+    final Entry[] original = arr.clone();
+    new ArrayMergeSorter<Entry>(arr, randomInt(length)).merge(0, mid, length);
+    assertSorted(original, arr);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testWithoutCompareSavedToSlot() {
+    final int length = randomInt(20000);
+    final Entry[] arr = new Entry[length];
+    final Strategy strategy = randomFrom(Strategy.values());
+    for (int i = 0; i < length; ++i) {
+      strategy.set(arr, i);
+    }
+    final Entry[] original = arr.clone();
+    final int maxTempSlots = randomInt(length);
+    // doesn't override compareSavedToSlot
+    new MergeSorter(maxTempSlots) {
+
+      private final Entry[] tmp = new Entry[maxTempSlots];
+
+      @Override
+      protected int compare(int i, int j) {
+        return arr[i].compareTo(arr[j]);
+      }
+
+      @Override
+      protected void swap(int i, int j) {
+        swap(arr, i, j);
+      }
+
+      @Override
+      protected void copy(int src, int dest) {
+        arr[dest] = arr[src];
+      }
+
+      @Override
+      protected void save(int i, int j) {
+        tmp[j] = arr[i];
+      }
+
+      @Override
+      protected void restore(int i, int j) {
+        arr[j] = tmp[i];
+      }
+
+      @Override
+      protected int compareSaved(int i, int j) {
+        return tmp[i].compareTo(tmp[j]);
+      }
+
+    }.sort(0, length);
+    assertSorted(original, arr);
+  }
+
 }
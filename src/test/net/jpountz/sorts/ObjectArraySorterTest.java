@@ -0,0 +1,208 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+
+@RunWith(RandomizedRunner.class)
+public class ObjectArraySorterTest extends RandomizedTest {
+
+  private static final Comparator<Entry> COMPARATOR = new Comparator<Entry>() {
+    @Override
+    public int compare(Entry e1, Entry e2) {
+      return e1.compareTo(e2);
+    }
+  };
+
+  private static final ObjectArraySorter.IntKey<Entry> INT_KEY = new ObjectArraySorter.IntKey<Entry>() {
+    @Override
+    public int key(Entry value) {
+      return value.value;
+    }
+  };
+
+  private Entry[] randomEntries(int length) {
+    final Entry[] arr = new Entry[length];
+    final int cardinality = randomBoolean() ? 10 : Integer.MAX_VALUE;
+    for (int i = 0; i < length; ++i) {
+      arr[i] = new Entry(randomInt(cardinality - 1) - (cardinality >>> 1), i);
+    }
+    if (randomBoolean()) {
+      // partially sorted
+      Arrays.sort(arr, 0, length / 2);
+    }
+    return arr;
+  }
+
+  private interface SortMethod {
+    void sort(Entry[] arr, int from, int to);
+  }
+
+  private void test(SortMethod method, boolean stable) {
+    final Entry[] entries = randomEntries(randomInt(10000));
+    final int o = randomInt(100);
+    final Entry[] arr = new Entry[o + entries.length + randomInt(2)];
+    System.arraycopy(entries, 0, arr, o, entries.length);
+    method.sort(arr, o, o + entries.length);
+    final Entry[] expected = entries.clone();
+    Arrays.sort(expected);
+    for (int i = 0; i < entries.length; ++i) {
+      assertEquals(expected[i].value, arr[o + i].value);
+      if (stable) {
+        assertEquals(expected[i].ord, arr[o + i].ord);
+      }
+    }
+  }
+
+  @Test
+  public void testIntroSorter() {
+    test(new SortMethod() {
+      @Override
+      public void sort(Entry[] arr, int from, int to) {
+        ObjectArraySorter.introSorter(arr, COMPARATOR).sort(from, to);
+      }
+    }, false);
+  }
+
+  @Test
+  public void testTimSorter() {
+    final int maxTempSlots = randomInt(5000);
+    test(new SortMethod() {
+      @Override
+      public void sort(Entry[] arr, int from, int to) {
+        ObjectArraySorter.timSorter(arr, COMPARATOR, maxTempSlots).sort(from, to);
+      }
+    }, true);
+  }
+
+  @Test
+  public void testMergeSorter() {
+    final int maxTempSlots = randomInt(10000);
+    test(new SortMethod() {
+      @Override
+      public void sort(Entry[] arr, int from, int to) {
+        ObjectArraySorter.mergeSorter(arr, COMPARATOR, maxTempSlots).sort(from, to);
+      }
+    }, true);
+  }
+
+  @Test
+  public void testSort() {
+    test(new SortMethod() {
+      @Override
+      public void sort(Entry[] arr, int from, int to) {
+        ObjectArraySorter.sort(arr, from, to, COMPARATOR);
+      }
+    }, false);
+  }
+
+  @Test
+  public void testStableSort() {
+    test(new SortMethod() {
+      @Override
+      public void sort(Entry[] arr, int from, int to) {
+        ObjectArraySorter.stableSort(arr, from, to, COMPARATOR);
+      }
+    }, true);
+  }
+
+  @Test
+  public void testSortByIntKey() {
+    final boolean stable = randomBoolean();
+    test(new SortMethod() {
+      @Override
+      public void sort(Entry[] arr, int from, int to) {
+        ObjectArraySorter.sortByIntKey(arr, from, to, INT_KEY, stable);
+      }
+    }, stable);
+  }
+
+  @Test
+  public void testSortByLongKey() {
+    final boolean stable = randomBoolean();
+    test(new SortMethod() {
+      @Override
+      public void sort(Entry[] arr, int from, int to) {
+        ObjectArraySorter.sortByLongKey(arr, from, to, new ObjectArraySorter.LongKey<Entry>() {
+          @Override
+          public long key(Entry value) {
+            return value.value;
+          }
+        }, stable);
+      }
+    }, stable);
+  }
+
+  @Test
+  public void testSortByDoubleKey() {
+    final boolean stable = randomBoolean();
+    test(new SortMethod() {
+      @Override
+      public void sort(Entry[] arr, int from, int to) {
+        ObjectArraySorter.sortByDoubleKey(arr, from, to, new ObjectArraySorter.DoubleKey<Entry>() {
+          @Override
+          public double key(Entry value) {
+            return value.value / 3d;
+          }
+        }, stable);
+      }
+    }, stable);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRange() {
+    ObjectArraySorter.sortByIntKey(new Entry[3], 1, 4, INT_KEY, true);
+  }
+
+  @Test
+  public void testLazyTempStorage() {
+    final Entry[] arr = new Entry[10000];
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = new Entry(i, i);
+    }
+    final int maxTempSlots = arr.length / 4;
+    final ObjectArraySorter.ObjectTimSorter<Entry> timSorter = (ObjectArraySorter.ObjectTimSorter<Entry>) ObjectArraySorter.timSorter(arr, COMPARATOR, maxTempSlots);
+    final ObjectArraySorter.ObjectMergeSorter<Entry> mergeSorter = (ObjectArraySorter.ObjectMergeSorter<Entry>) ObjectArraySorter.mergeSorter(arr, COMPARATOR, maxTempSlots);
+
+    // sorted input doesn't need any temporary storage
+    timSorter.sort(0, arr.length);
+    assertEquals(0, timSorter.tmp.length);
+
+    // shuffled input grows the buffers up to maxTempSlots and leaves no
+    // references to values in them
+    for (Sorter sorter : Arrays.<Sorter>asList(timSorter, mergeSorter)) {
+      Collections.shuffle(Arrays.asList(arr), getRandom());
+      sorter.sort(0, arr.length);
+      for (int i = 0; i < arr.length; ++i) {
+        assertEquals(i, arr[i].value);
+      }
+    }
+    for (Object[] tmp : Arrays.asList(timSorter.tmp, mergeSorter.tmp)) {
+      assertTrue(tmp.length > 0);
+      assertTrue(tmp.length <= maxTempSlots);
+      for (Object o : tmp) {
+        assertNull(o);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,75 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class PagedLongArrayTest extends RandomizedTest {
+
+  @Test
+  @Repeat(iterations=20)
+  public void testSort() {
+    final long[] values = new long[randomInt(20000)];
+    final long max = randomFrom(new Long[] {1L, 100L, Long.MAX_VALUE});
+    final PagedLongArray arr = new PagedLongArray(values.length, randomIntBetween(1, 12));
+    assertEquals(values.length, arr.size());
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = randomBoolean() ? (long) (randomDouble() * max) : -(long) (randomDouble() * max);
+      arr.set(i, values[i]);
+    }
+    final int from = randomInt(values.length);
+    final int to = randomIntBetween(from, values.length);
+    Arrays.sort(values, from, to);
+    switch (randomInt(3)) {
+    case 0:
+      arr.sort(from, to);
+      break;
+    case 1:
+      arr.introSorter().sort(from, to);
+      break;
+    case 2:
+      arr.timSorter(randomInt(values.length)).sort(from, to);
+      break;
+    default:
+      arr.heapSorter().sort(from, to);
+      break;
+    }
+    for (int i = 0; i < values.length; ++i) {
+      assertEquals(values[i], arr.get(i));
+    }
+  }
+
+  @Test
+  public void testInvalidSlice() {
+    final PagedLongArray arr = new PagedLongArray(10, 2);
+    for (long[] slice : new long[][] {{-1, 5}, {5, 4}, {0, 11}}) {
+      try {
+        arr.sort(slice[0], slice[1]);
+        fail();
+      } catch (IllegalArgumentException e) {
+        // ok
+      }
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class ParallelRadixSorterTest extends RandomizedTest {
+
+  private static int randomLength() {
+    return rarely() ? randomInt(1000) : randomIntBetween(ParallelTasks.PARALLEL_THRESHOLD, 3 * ParallelTasks.PARALLEL_THRESHOLD);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testInts() throws InterruptedException {
+    final int[] arr = new int[randomLength()];
+    final int base = randomInt();
+    final int max = randomFrom(new Integer[] {1, 10, 1000, 1 << 20, Integer.MAX_VALUE});
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = base + (randomBoolean() ? randomInt(max) : -randomInt(max));
+    }
+    final int from = randomInt(arr.length / 10);
+    final int to = arr.length - randomInt(arr.length / 10);
+    final int[] expected = arr.clone();
+    Arrays.sort(expected, from, to);
+    final JoiningThreadPool executor = new JoiningThreadPool(randomIntBetween(1, 4));
+    try {
+      ParallelRadixSorter.sort(arr, from, to, new int[to - from], executor, randomIntBetween(1, 8));
+    } finally {
+      executor.shutdownAndJoin();
+    }
+    assertArrayEquals(expected, arr);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testLongs() throws InterruptedException {
+    final long[] arr = new long[randomLength()];
+    final long base = randomLong();
+    final int max = randomFrom(new Integer[] {1, 10, 1000, 1 << 20, Integer.MAX_VALUE});
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = rarely() ? randomLong() : base + (randomBoolean() ? randomInt(max) : -randomInt(max));
+    }
+    final int from = randomInt(arr.length / 10);
+    final int to = arr.length - randomInt(arr.length / 10);
+    final long[] expected = arr.clone();
+    Arrays.sort(expected, from, to);
+    final JoiningThreadPool executor = new JoiningThreadPool(randomIntBetween(1, 4));
+    try {
+      ParallelRadixSorter.sort(arr, from, to, new long[to - from], executor, randomIntBetween(1, 8));
+    } finally {
+      executor.shutdownAndJoin();
+    }
+    assertArrayEquals(expected, arr);
+  }
+
+  @Test
+  @Repeat(iterations=5)
+  public void testSkewedTopByte() throws InterruptedException {
+    // almost all values share their top byte, so that a single bucket of
+    // the first digit needs to be distributed again in parallel
+    final int[] ints = new int[randomIntBetween(4 * ParallelTasks.PARALLEL_THRESHOLD, 8 * ParallelTasks.PARALLEL_THRESHOLD)];
+    final long[] longs = new long[ints.length];
+    for (int i = 0; i < ints.length; ++i) {
+      ints[i] = (randomInt(99) == 0 ? 0x81 << 24 : 0x01 << 24) | randomInt(0xFFFFFF);
+      longs[i] = (long) ints[i] << 32 | (randomInt() & 0xFFFFFFFFL);
+    }
+    final int[] expectedInts = ints.clone();
+    Arrays.sort(expectedInts);
+    final long[] expectedLongs = longs.clone();
+    Arrays.sort(expectedLongs);
+    final int parallelism = randomIntBetween(2, 8);
+
+    JoiningThreadPool executor = new JoiningThreadPool(randomIntBetween(1, 4));
+    try {
+      ParallelRadixSorter.sort(ints, 0, ints.length, new int[ints.length], executor, parallelism);
+    } finally {
+      executor.shutdownAndJoin();
+    }
+    assertArrayEquals(expectedInts, ints);
+    // one round of 4 tasks per chunk for the top digit and at least another
+    // one for the large bucket
+    assertTrue(executor.getCompletedTaskCount() >= 8 * parallelism);
+
+    executor = new JoiningThreadPool(randomIntBetween(1, 4));
+    try {
+      ParallelRadixSorter.sort(longs, 0, longs.length, new long[longs.length], executor, parallelism);
+    } finally {
+      executor.shutdownAndJoin();
+    }
+    assertArrayEquals(expectedLongs, longs);
+    assertTrue(executor.getCompletedTaskCount() >= 8 * parallelism);
+  }
+
+}
@@ -0,0 +1,94 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class PermuterTest extends RandomizedTest {
+
+  @Test
+  @Repeat(iterations=10)
+  public void testSortColumns() {
+    final int from = randomInt(100);
+    final Entry[] entries = new Entry[from + randomInt(20000)];
+    final Integer[] ords = new Integer[entries.length];
+    for (int i = 0; i < entries.length; ++i) {
+      entries[i] = new Entry(randomInt(100), i);
+      ords[i] = i;
+    }
+    final Entry[] expected = Arrays.copyOfRange(entries, from, entries.length);
+    Arrays.sort(expected);
+
+    final int[] ids = new ArrayIndirectSorter<Entry>(entries, true).sort(from, entries.length);
+    final int[] idsCopy = ids.clone();
+    new ArrayPermuter(entries, ords).permute(ids, from);
+    assertArrayEquals(idsCopy, ids);
+    for (int i = 0; i < expected.length; ++i) {
+      assertSame(expected[i], entries[from + i]);
+      assertEquals(expected[i].ord, ords[from + i].intValue());
+    }
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testNotAPermutation() {
+    final int len = randomIntBetween(1, 100);
+    final Integer[] arr = new Integer[len];
+    final int[] ids = new int[len];
+    for (int i = 0; i < len; ++i) {
+      arr[i] = i;
+      ids[i] = i;
+    }
+    if (randomBoolean()) {
+      ids[randomInt(len - 1)] = randomBoolean() ? -1 : len;
+    } else {
+      ids[randomInt(len - 1)] = randomInt(len - 1);
+      if (isPermutation(ids)) {
+        return;
+      }
+    }
+    final int[] idsCopy = ids.clone();
+    try {
+      new ArrayPermuter((Object[]) arr).permute(ids, 0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertArrayEquals(idsCopy, ids);
+    for (int i = 0; i < len; ++i) {
+      assertEquals(i, arr[i].intValue());
+    }
+  }
+
+  private static boolean isPermutation(int[] ids) {
+    final boolean[] seen = new boolean[ids.length];
+    for (int id : ids) {
+      if (seen[id]) {
+        return false;
+      }
+      seen[id] = true;
+    }
+    return true;
+  }
+
+}
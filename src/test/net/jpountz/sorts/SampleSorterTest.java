@@ -0,0 +1,59 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class SampleSorterTest extends AbstractSortTest {
+
+  public SampleSorterTest() {
+    super(false);
+  }
+
+  @Override
+  public Sorter newSorter(Entry[] arr) {
+    return new ArraySampleSorter<Entry>(arr);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testLarge() {
+    test(randomFrom(Strategy.values()), randomIntBetween(20000, 200000));
+  }
+
+  @Test
+  @Repeat(iterations=5)
+  public void testParallelSort() throws InterruptedException {
+    final Strategy strategy = randomFrom(Strategy.values());
+    final Entry[] arr = new Entry[randomIntBetween(ParallelTasks.PARALLEL_THRESHOLD, 2 * ParallelTasks.PARALLEL_THRESHOLD)];
+    for (int i = 0; i < arr.length; ++i) {
+      strategy.set(arr, i);
+    }
+    final Entry[] toSort = arr.clone();
+    final JoiningThreadPool executor = new JoiningThreadPool(randomIntBetween(1, 4));
+    try {
+      new ArraySampleSorter<Entry>(toSort).sort(0, toSort.length, executor, randomIntBetween(1, 8));
+    } finally {
+      executor.shutdownAndJoin();
+    }
+    assertSorted(arr, toSort);
+  }
+
+}
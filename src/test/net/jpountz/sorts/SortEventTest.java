@@ -0,0 +1,148 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+
+@RunWith(RandomizedRunner.class)
+public class SortEventTest extends RandomizedTest {
+
+  private final List<SortEvent> events = new ArrayList<SortEvent>();
+
+  @Before
+  public void registerListener() {
+    Sorter.setSortListener(new SortListener() {
+      @Override
+      public void onSort(SortEvent event) {
+        events.add(event);
+      }
+    });
+  }
+
+  @After
+  public void unregisterListener() {
+    Sorter.setSortListener(null);
+  }
+
+  private static Integer[] randomArray(int length) {
+    final Integer[] arr = new Integer[length];
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = randomInt();
+    }
+    return arr;
+  }
+
+  @Test
+  public void testTimSorter() {
+    final Integer[] arr = randomArray(randomIntBetween(1000, 10000));
+    // 3 sorted runs
+    Arrays.sort(arr, 0, arr.length / 3);
+    Arrays.sort(arr, arr.length / 3, 2 * arr.length / 3);
+    Arrays.sort(arr, 2 * arr.length / 3, arr.length);
+    final int maxTempSlots = randomInt(arr.length / 6);
+    final TimSorter sorter = new ArrayTimSorter<Integer>(arr, maxTempSlots);
+    sorter.sort(0, arr.length);
+    assertEquals(1, events.size());
+    final SortEvent event = events.get(0);
+    assertSame(sorter, event.getSorter());
+    assertEquals("TimSorter", event.getAlgorithm());
+    assertEquals(arr.length, event.getLength());
+    assertTrue(event.getDurationNanos() >= 0);
+    assertEquals(maxTempSlots, event.getMaxTempSlots());
+    assertTrue(event.getTempSlotsUsed() <= maxTempSlots);
+    assertEquals(3, event.getRuns());
+    assertTrue(event.getInPlaceMerges() > 0);
+    assertEquals(0, event.getHeapSortFallbacks());
+
+    // merges outside of sort() are not recorded
+    sorter.merge(0, arr.length / 2, arr.length);
+    assertEquals(1, events.size());
+  }
+
+  @Test
+  public void testMergeSorter() {
+    final Integer[] arr = randomArray(randomIntBetween(1000, 10000));
+    new ArrayMergeSorter<Integer>(arr, arr.length).sort(0, arr.length);
+    final Integer[] arr2 = randomArray(arr.length);
+    new ArrayMergeSorter<Integer>(arr2, arr.length / 10).sort(0, arr2.length);
+    assertEquals(2, events.size());
+    assertEquals("MergeSorter", events.get(0).getAlgorithm());
+    assertEquals(arr.length, events.get(0).getTempSlotsUsed());
+    assertEquals(0, events.get(0).getInPlaceMerges());
+    assertTrue(events.get(1).getTempSlotsUsed() <= arr.length / 10);
+    assertTrue(events.get(1).getInPlaceMerges() > 0);
+  }
+
+  @Test
+  public void testIntroSorter() {
+    final Integer[] arr = randomArray(randomIntBetween(1000, 10000));
+    new ArrayIntroSorter<Integer>(arr).sort(0, arr.length);
+    // a partition that only splits off the minimum value makes quicksort
+    // recurse too deep
+    new ArrayIntroSorter<Integer>(arr) {
+      @Override
+      protected int partition(int from, int to) {
+        int min = from;
+        for (int i = from + 1; i < to; ++i) {
+          if (compare(i, min) < 0) {
+            min = i;
+          }
+        }
+        swap(from, min);
+        return from + 1;
+      }
+    }.sort(0, arr.length);
+    assertEquals(2, events.size());
+    assertEquals("IntroSorter", events.get(0).getAlgorithm());
+    assertEquals(-1, events.get(0).getMaxTempSlots());
+    assertTrue(events.get(1).getHeapSortFallbacks() >= 1);
+  }
+
+  @Test
+  public void testNoListener() {
+    Sorter.setSortListener(null);
+    final Integer[] arr = randomArray(randomIntBetween(1000, 10000));
+    final TimSorter sorter = new ArrayTimSorter<Integer>(arr, 0);
+    sorter.sort(0, arr.length);
+    assertNull(sorter.event);
+    assertTrue(events.isEmpty());
+  }
+
+  @Test
+  public void testTrivialSlices() {
+    // every call is reported, even if there is nothing to sort
+    final Integer[] arr = randomArray(1);
+    final Sorter[] sorters = new Sorter[] {
+        new ArrayIntroSorter<Integer>(arr),
+        new ArrayMergeSorter<Integer>(arr, 1),
+        new ArrayTimSorter<Integer>(arr, 1)
+    };
+    for (Sorter sorter : sorters) {
+      events.clear();
+      sorter.sort(0, randomInt(1));
+      assertEquals(1, events.size());
+    }
+  }
+
+}
@@ -0,0 +1,79 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class SortedBufferTest extends AbstractSortTest {
+
+  public SortedBufferTest() {
+    super(true);
+  }
+
+  @Override
+  public Sorter newSorter(Entry[] arr) {
+    return new ArraySortedBuffer<Entry>(arr, randomInt(arr.length));
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testAppend() {
+    final Strategy strategy = randomFrom(Strategy.values());
+    final Entry[] arr = new Entry[randomInt(10000)];
+    for (int i = 0; i < arr.length; ++i) {
+      strategy.set(arr, i);
+    }
+    final Entry[] buffer = new Entry[arr.length];
+    final ArraySortedBuffer<Entry> sorter = new ArraySortedBuffer<Entry>(buffer, randomInt(arr.length));
+    final int from = randomInt(arr.length);
+    sorter.clear(from);
+    assertEquals(0, sorter.size());
+    for (int size = 0; size < arr.length - from; ) {
+      final int count = rarely() ? randomInt(arr.length - from - size) : randomIntBetween(1, Math.min(50, arr.length - from - size));
+      System.arraycopy(arr, size, buffer, from + size, count);
+      sorter.append(count);
+      size += count;
+      assertEquals(size, sorter.size());
+      if (rarely()) {
+        final Entry key = new Entry(randomFrom(arr).value + randomIntBetween(-1, 1), -1);
+        sorter.setKey(key);
+        int expected = 0;
+        for (int i = 0; i < size; ++i) {
+          if (arr[i].compareTo(key) < 0) {
+            ++expected;
+          }
+        }
+        assertEquals(expected, sorter.rank());
+        if (randomBoolean()) {
+          assertEquals(from + expected, sorter.lowerBound());
+        }
+      }
+      if (rarely()) {
+        sorter.ensureSorted();
+        assertSorted(Arrays.copyOf(arr, size), Arrays.copyOfRange(buffer, from, from + size));
+      }
+    }
+    sorter.ensureSorted();
+    assertSorted(Arrays.copyOf(arr, arr.length - from), Arrays.copyOfRange(buffer, from, arr.length));
+  }
+
+}
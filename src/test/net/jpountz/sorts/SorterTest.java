@@ -49,6 +49,8 @@ public class SorterTest extends RandomizedTest {
 
     int dest2 = sorter.lower2(from, to, off);
     assertEquals(dest, dest2);
+    dest2 = sorter.lower3(from, to, off);
+    assertEquals(dest, dest2);
 
     dest = sorter.upper(from, to, off);
     if (dest > from) {
@@ -60,6 +62,88 @@ public class SorterTest extends RandomizedTest {
 
     dest2 = sorter.upper2(from, to, off);
     assertEquals(dest, dest2);
+    dest2 = sorter.upper3(from, to, off);
+    assertEquals(dest, dest2);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testNetworkSort() {
+    for (int len = 0; len <= Sorter.MAX_NETWORK_LENGTH; ++len) {
+      final Integer[] arr = new Integer[len + 2];
+      final int max = randomBoolean() ? 3 : Integer.MAX_VALUE;
+      for (int i = 0; i < arr.length; ++i) {
+        arr[i] = randomInt(max);
+      }
+      final Integer[] expected = arr.clone();
+      Arrays.sort(expected, 1, len + 1);
+      new ArrayHeapSorter<Integer>(arr).networkSort(1, len + 1);
+      assertArrayEquals(expected, arr);
+    }
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testPartitionLongs() {
+    final long[] arr = new long[randomIntBetween(3, 100) + 2];
+    final boolean lowCardinality = randomBoolean();
+    for (int i = 0; i < arr.length; ++i) {
+      arr[i] = lowCardinality ? randomIntBetween(-2, 2) : getRandom().nextLong();
+    }
+    final long[] copy = arr.clone();
+    final int split = Sorter.partition(arr, 1, arr.length - 1);
+    assertTrue(split > 1 && split <= arr.length - 1);
+    assertEquals(copy[0], arr[0]);
+    assertEquals(copy[arr.length - 1], arr[arr.length - 1]);
+    for (int i = 1; i < split; ++i) {
+      for (int j = split; j < arr.length - 1; ++j) {
+        assertTrue(arr[i] <= arr[j]);
+      }
+    }
+    if (split == arr.length - 1) {
+      for (int i = 2; i < split; ++i) {
+        assertTrue(arr[i - 1] <= arr[i]);
+      }
+    }
+    Arrays.sort(copy);
+    Arrays.sort(arr);
+    assertArrayEquals(copy, arr);
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testMergeInts() {
+    final int len1 = randomInt(100), len2 = randomInt(100);
+    final int max = randomBoolean() ? 10 : Integer.MAX_VALUE;
+    final int[] src = new int[len1 + len2 + 2];
+    for (int i = 0; i < src.length; ++i) {
+      src[i] = randomBoolean() ? randomInt(max) : -randomInt(max);
+    }
+    Arrays.sort(src, 1, 1 + len1);
+    Arrays.sort(src, 1 + len1, 1 + len1 + len2);
+    final int[] dest = new int[src.length];
+    Sorter.merge(src, 1, 1 + len1, 1 + len1 + len2, dest, 1);
+    final int[] expected = Arrays.copyOfRange(src, 1, 1 + len1 + len2);
+    Arrays.sort(expected);
+    assertArrayEquals(expected, Arrays.copyOfRange(dest, 1, 1 + len1 + len2));
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testMergeLongs() {
+    final int len1 = randomInt(100), len2 = randomInt(100);
+    final boolean lowCardinality = randomBoolean();
+    final long[] src = new long[len1 + len2 + 2];
+    for (int i = 0; i < src.length; ++i) {
+      src[i] = lowCardinality ? randomIntBetween(-5, 5) : getRandom().nextLong();
+    }
+    Arrays.sort(src, 1, 1 + len1);
+    Arrays.sort(src, 1 + len1, 1 + len1 + len2);
+    final long[] dest = new long[src.length];
+    Sorter.merge(src, 1, 1 + len1, 1 + len1 + len2, dest, 1);
+    final long[] expected = Arrays.copyOfRange(src, 1, 1 + len1 + len2);
+    Arrays.sort(expected);
+    assertArrayEquals(expected, Arrays.copyOfRange(dest, 1, 1 + len1 + len2));
   }
 
 }
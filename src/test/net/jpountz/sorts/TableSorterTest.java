@@ -0,0 +1,176 @@
+package net.jpountz.sorts;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class TableSorterTest extends RandomizedTest {
+
+  private static final double[] DOUBLES = {Double.NEGATIVE_INFINITY, -1.5, -0d, 0d, Double.MIN_VALUE, 2, Double.POSITIVE_INFINITY, Double.NaN};
+
+  private static BitSet randomNulls(int rows) {
+    if (randomBoolean()) {
+      return null;
+    }
+    final BitSet nulls = new BitSet();
+    for (int i = 0; i < rows; ++i) {
+      if (rarely()) {
+        nulls.set(i);
+      }
+    }
+    return nulls;
+  }
+
+  // reference implementation of the comparison of a column
+  private static int compare(Object values, BitSet nulls, boolean descending, boolean nullsFirst, int a, int b) {
+    final boolean aNull, bNull;
+    if (values instanceof byte[][]) {
+      aNull = ((byte[][]) values)[a] == null;
+      bNull = ((byte[][]) values)[b] == null;
+    } else {
+      aNull = nulls != null && nulls.get(a);
+      bNull = nulls != null && nulls.get(b);
+    }
+    if (aNull || bNull) {
+      return aNull == bNull ? 0 : aNull == nullsFirst ? -1 : 1;
+    }
+    final int cmp;
+    if (values instanceof long[]) {
+      cmp = Long.valueOf(((long[]) values)[a]).compareTo(((long[]) values)[b]);
+    } else if (values instanceof int[]) {
+      cmp = Integer.valueOf(((int[]) values)[a]).compareTo(((int[]) values)[b]);
+    } else if (values instanceof double[]) {
+      cmp = Double.compare(((double[]) values)[a], ((double[]) values)[b]);
+    } else {
+      final byte[] v1 = ((byte[][]) values)[a], v2 = ((byte[][]) values)[b];
+      int c = 0;
+      for (int i = 0; i < Math.min(v1.length, v2.length) && c == 0; ++i) {
+        c = (v1[i] & 0xFF) - (v2[i] & 0xFF);
+      }
+      cmp = c != 0 ? c : v1.length - v2.length;
+    }
+    return descending ? -cmp : cmp;
+  }
+
+  private void test(boolean stable) {
+    final int rows = randomInt(5000);
+    final int numColumns = randomIntBetween(1, 5);
+    final Object[] columns = new Object[numColumns];
+    final BitSet[] nulls = new BitSet[numColumns];
+    final boolean[] descending = new boolean[numColumns];
+    final boolean[] nullsFirst = new boolean[numColumns];
+    final TableSorter sorter = new TableSorter(stable);
+    for (int c = 0; c < numColumns; ++c) {
+      descending[c] = randomBoolean();
+      nullsFirst[c] = randomBoolean();
+      final int cardinality = randomFrom(new Integer[] {2, 10, Integer.MAX_VALUE});
+      switch (randomInt(3)) {
+        case 0:
+          final long[] longs = new long[rows];
+          for (int i = 0; i < rows; ++i) {
+            longs[i] = cardinality == Integer.MAX_VALUE ? randomLong() : randomInt(cardinality) - 1;
+          }
+          nulls[c] = randomNulls(rows);
+          sorter.addColumn(longs, nulls[c], descending[c], nullsFirst[c]);
+          columns[c] = longs;
+          break;
+        case 1:
+          final int[] ints = new int[rows];
+          for (int i = 0; i < rows; ++i) {
+            ints[i] = cardinality == Integer.MAX_VALUE ? randomInt() : randomInt(cardinality) - 1;
+          }
+          nulls[c] = randomNulls(rows);
+          sorter.addColumn(ints, nulls[c], descending[c], nullsFirst[c]);
+          columns[c] = ints;
+          break;
+        case 2:
+          final double[] doubles = new double[rows];
+          for (int i = 0; i < rows; ++i) {
+            doubles[i] = cardinality == Integer.MAX_VALUE ? randomDouble() - 0.5 : DOUBLES[randomInt(Math.min(cardinality, DOUBLES.length) - 1)];
+          }
+          nulls[c] = randomNulls(rows);
+          sorter.addColumn(doubles, nulls[c], descending[c], nullsFirst[c]);
+          columns[c] = doubles;
+          break;
+        default:
+          final byte[][] bytes = new byte[rows][];
+          for (int i = 0; i < rows; ++i) {
+            if (!rarely()) {
+              bytes[i] = new byte[randomInt(12)];
+              for (int j = 0; j < bytes[i].length; ++j) {
+                bytes[i][j] = (byte) randomInt(Math.min(cardinality, 255));
+              }
+            }
+          }
+          sorter.addColumn(bytes, descending[c], nullsFirst[c]);
+          columns[c] = bytes;
+          break;
+      }
+    }
+
+    final Comparator<Integer> comparator = new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        for (int c = 0; c < numColumns; ++c) {
+          final int cmp = TableSorterTest.compare(columns[c], nulls[c], descending[c], nullsFirst[c], a, b);
+          if (cmp != 0) {
+            return cmp;
+          }
+        }
+        return 0;
+      }
+    };
+    final List<Integer> expected = new ArrayList<Integer>();
+    for (int i = 0; i < rows; ++i) {
+      expected.add(i);
+    }
+    Collections.sort(expected, comparator);
+
+    final int[] ids = sorter.sort(0, rows);
+    assertEquals(rows, ids.length);
+    for (int i = 0; i < rows; ++i) {
+      if (stable) {
+        assertEquals(expected.get(i).intValue(), ids[i]);
+      } else {
+        assertEquals(0, comparator.compare(expected.get(i), ids[i]));
+      }
+    }
+  }
+
+  @Test
+  @Repeat(iterations=20)
+  public void testStable() {
+    test(true);
+  }
+
+  @Test
+  @Repeat(iterations=20)
+  public void testUnstable() {
+    test(false);
+  }
+
+}
@@ -34,6 +34,90 @@ public class TimSorterTest extends AbstractSortTest {
     return new ArrayTimSorter<Entry>(arr, randomInt(arr.length));
   }
 
+  private void testStep(Strategy strategy, int length) {
+    final Entry[] arr = new Entry[length];
+    for (int i = 0; i < arr.length; ++i) {
+      strategy.set(arr, i);
+    }
+    final Entry[] toSort = arr.clone();
+    final int maxTempSlots = randomBoolean() ? arr.length / 2 : randomInt(arr.length);
+    final int[] work = new int[1];
+    final TimSorter sorter = new ArrayTimSorter<Entry>(toSort, maxTempSlots) {
+      @Override
+      protected int compare(int i, int j) {
+        ++work[0];
+        return super.compare(i, j);
+      }
+      @Override
+      protected void swap(int i, int j) {
+        ++work[0];
+        super.swap(i, j);
+      }
+      @Override
+      protected void copy(int src, int dest) {
+        ++work[0];
+        super.copy(src, dest);
+      }
+      @Override
+      protected void saveAll(int start, int len) {
+        work[0] += len;
+        super.saveAll(start, len);
+      }
+      @Override
+      protected void save(int i, int j) {
+        ++work[0];
+        super.save(i, j);
+      }
+      @Override
+      protected void restore(int src, int dest) {
+        ++work[0];
+        super.restore(src, dest);
+      }
+      @Override
+      protected int compareSaved(int i, int j) {
+        ++work[0];
+        return super.compareSaved(i, j);
+      }
+    };
+    sorter.startSort(0, toSort.length);
+    final int maxWork = randomIntBetween(1, 1000);
+    while (true) {
+      if (rarely()) {
+        if (sorter.sortSome(randomInt(100000))) {
+          break;
+        }
+        continue;
+      }
+      work[0] = 0;
+      final boolean done = sorter.step(maxWork);
+      // a step may finish its last binary insertion or galloping search
+      if (maxTempSlots >= arr.length / 2 && work[0] > maxWork + 2 * TimSorter.THRESHOLD) {
+        fail(work[0] + " compares, swaps and writes in a single step of " + maxWork);
+      }
+      if (done) {
+        break;
+      }
+    }
+    assertTrue(sorter.step(1));
+    assertSorted(arr, toSort);
+  }
+
+  @Test
+  @Repeat(iterations=20)
+  public void testStep() {
+    testStep(randomFrom(Strategy.values()), randomInt(20000));
+  }
+
+  @Test
+  public void testStepAscending() {
+    testStep(Strategy.ASCENDING, randomIntBetween(100000, 200000));
+  }
+
+  @Test
+  public void testStepStrictlyDescending() {
+    testStep(Strategy.STRICTLY_DESCENDING, randomIntBetween(100000, 200000));
+  }
+
   @Test
   @Repeat(iterations=10)
   public void testLowerUpper() {
@@ -58,4 +142,15 @@ public class TimSorterTest extends AbstractSortTest {
     assertEquals(sorter.upper(from, to, off), sorter.upperSaved3(from, to, savedOff));
   }
 
+  @Test
+  @Repeat(iterations=10)
+  public void testMerge() {
+    final int length = randomInt(20000);
+    final int mid = rarely() ? length : randomInt(length);
+    final Entry[] arr = twoRuns(randomFrom(Strategy.values()), length, mid);
+    final Entry[] original = arr.clone();
+    new ArrayTimSorter<Entry>(arr, randomInt(length)).merge(0, mid, length);
+    assertSorted(original, arr);
+  }
+
 }